@@ -0,0 +1,67 @@
+package de.ialistannen.doctor.benchmarks;
+
+import de.ialistannen.doctor.DocSources;
+import de.ialistannen.doctor.rendering.DeclarationFormatter;
+import de.ialistannen.javadocbpi.model.elements.DocumentedElement;
+import de.ialistannen.javadocbpi.rendering.DeclarationRenderer;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formatting declarations with many annotations, generics and interfaces. {@link #render()} is the
+ * baseline the formatter starts from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class DeclarationFormatterBenchmark {
+
+  @Param({
+      "java.base/java.lang.Deprecated",
+      "java.base/java.lang.Thread#stop()",
+      "java.base/java.util.concurrent.ConcurrentHashMap",
+      "java.base/java.util.stream.Collectors#toMap(java.util.function.Function,"
+          + "java.util.function.Function,java.util.function.BinaryOperator,"
+          + "java.util.function.Supplier)"
+  })
+  private String qualifiedName;
+
+  private DocumentedElement element;
+  private DeclarationRenderer renderer;
+  private DeclarationFormatter formatter;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException, IOException, InterruptedException {
+    try (DocSources sources = Fixtures.loadTemplate()) {
+      element = sources.storage().get(qualifiedName).orElseThrow().element();
+    }
+    renderer = new DeclarationRenderer();
+    formatter = new DeclarationFormatter(56, renderer);
+  }
+
+  @Benchmark
+  public String render() {
+    return renderer.renderDeclaration(element);
+  }
+
+  @Benchmark
+  public String format() {
+    return formatter.formatDeclaration(element);
+  }
+}
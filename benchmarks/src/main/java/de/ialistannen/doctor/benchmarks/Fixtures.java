@@ -0,0 +1,163 @@
+package de.ialistannen.doctor.benchmarks;
+
+import de.ialistannen.doctor.DocSources;
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import de.ialistannen.doctor.index.CompactNameTrie;
+import de.ialistannen.doctor.index.NameTokenizer;
+import de.ialistannen.doctor.index.SourceFingerprint;
+import de.ialistannen.doctor.index.SourceRoutingIndex;
+import de.ialistannen.doctor.storage.ElementCache;
+import de.ialistannen.doctor.storage.ElementCodec;
+import de.ialistannen.doctor.storage.ElementSource;
+import de.ialistannen.doctor.storage.ElementStore;
+import de.ialistannen.doctor.storage.ElementStoreConverter;
+import de.ialistannen.doctor.storage.MultiFileStorage;
+import de.ialistannen.doctor.storage.SourceDatabase;
+import de.ialistannen.javadocbpi.storage.JsonSerializer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Benchmark inputs derived from a real JavadocIndexer database.
+ * <p>
+ * Element JSON is only ever produced by the JavadocIndexer, so the storage and rendering benchmarks
+ * need a template database, passed in the {@value #TEMPLATE_VARIABLE} environment variable. Forked
+ * benchmark JVMs inherit it.
+ */
+final class Fixtures {
+
+  static final String TEMPLATE_VARIABLE = "DOCTOR_BENCHMARK_DATABASE";
+  static final String JAVADOC_URL = "https://docs.oracle.com/en/java/javase/19/docs/api";
+
+  static Path templateDatabase() {
+    String template = System.getenv(TEMPLATE_VARIABLE);
+    if (template == null || !Files.isRegularFile(Path.of(template))) {
+      throw new IllegalStateException(
+          "Set " + TEMPLATE_VARIABLE + " to a database created by the JavadocIndexer"
+      );
+    }
+    return Path.of(template).toAbsolutePath();
+  }
+
+  /**
+   * Generates a database with a random sample of the template's elements.
+   *
+   * @param elementCount the amount of elements to copy
+   * @return the generated database, deleted when the JVM exits
+   */
+  static Path generateDatabase(int elementCount) throws IOException, SQLException {
+    Path file = Files.createTempFile("doctor-benchmark", ".db");
+    file.toFile().deleteOnExit();
+
+    try (
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+        Statement statement = connection.createStatement()
+    ) {
+      statement.execute(
+          "CREATE TABLE Elements (qualified_name TEXT PRIMARY KEY NOT NULL, data TEXT NOT NULL)"
+      );
+      try (PreparedStatement attach = connection.prepareStatement(
+          "ATTACH DATABASE ? AS template"
+      )) {
+        attach.setString(1, templateDatabase().toString());
+        attach.execute();
+      }
+      try (PreparedStatement copy = connection.prepareStatement(
+          "INSERT INTO Elements SELECT qualified_name, data FROM template.Elements"
+              + " ORDER BY random() LIMIT ?"
+      )) {
+        copy.setInt(1, elementCount);
+        copy.execute();
+      }
+    }
+
+    return file;
+  }
+
+  /**
+   * Creates a config like a user would write it, with a single source and without a snapshot or
+   * external javadoc.
+   *
+   * @param database the database of the source
+   * @return the config
+   */
+  static DocTorConfig config(Path database) throws IOException {
+    return DocTorConfig.parse("""
+        [[sources]]
+        database = '%s'
+        javadoc_url = '%s'
+        """.formatted(database, JAVADOC_URL));
+  }
+
+  static SourceConfig sourceConfig(Path database) throws IOException {
+    return config(database).sources().get(0);
+  }
+
+  /**
+   * Opens a single database as {@link MultiFileStorage}, like {@link DocSources} does.
+   *
+   * @param database the database to open
+   * @param elementStore whether to convert the database to an {@link ElementStore} and read from
+   *     that instead
+   * @param cache the element cache to use
+   * @param names receives all names in the database
+   * @return the storage
+   */
+  static MultiFileStorage openStorage(
+      Path database,
+      boolean elementStore,
+      ElementCache cache,
+      Collection<String> names
+  ) throws SQLException, IOException {
+    ElementSource source = new SourceDatabase(database);
+    if (elementStore) {
+      source = convert(database, (SourceDatabase) source);
+    }
+    SourceRoutingIndex.Builder routing = SourceRoutingIndex.builder();
+    List<String> sourceNames = new ArrayList<>();
+    source.forEachName(name -> {
+      routing.add(name, 0);
+      sourceNames.add(name);
+    });
+    names.addAll(sourceNames);
+
+    return new MultiFileStorage(
+        List.of(sourceConfig(database)),
+        List.of(source),
+        routing.build(CompactNameTrie.of(new NameTokenizer(), sourceNames)),
+        new ElementCodec(new JsonSerializer()),
+        cache
+    );
+  }
+
+  private static ElementStore convert(Path database, SourceDatabase source)
+      throws SQLException, IOException {
+    Path file = database.resolveSibling(database.getFileName() + ".elements");
+    SourceFingerprint fingerprint = SourceFingerprint.of(sourceConfig(database));
+
+    try (source) {
+      ElementStoreConverter.convert(source, file, fingerprint);
+    }
+
+    return ElementStore.open(file, fingerprint).orElseThrow();
+  }
+
+  /**
+   * Loads the template database like the bot does, without a snapshot or external javadoc.
+   *
+   * @return the loaded sources
+   */
+  static DocSources loadTemplate() throws SQLException, IOException, InterruptedException {
+    return DocSources.load(config(templateDatabase()));
+  }
+}
@@ -0,0 +1,88 @@
+package de.ialistannen.doctor.benchmarks;
+
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.doctor.index.AutocompleteCache;
+import de.ialistannen.doctor.index.CompactNameTrie;
+import de.ialistannen.doctor.index.NameIndex;
+import de.ialistannen.doctor.index.NameTokenizer;
+import de.ialistannen.doctor.index.NameTrie;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tokenizing and searching a large synthetic index, as done for every query and autocomplete
+ * keystroke.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx4g"})
+public class IndexBenchmark {
+
+  @Param({"object", "compact"})
+  private String indexType;
+
+  @Param({"20000"})
+  private int typeCount;
+
+  @Param({"String", "Concurrent#get", "java.util.List", "Hash", "str", "BufferReader3#append("})
+  private String query;
+
+  private NameTokenizer tokenizer;
+  private NameIndex index;
+  private AutocompleteCache autocompleteCache;
+  private List<String> tokens;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    tokenizer = new NameTokenizer();
+    NameTrie.Builder builder = NameTrie.builder(tokenizer);
+    SyntheticNames.generate(typeCount, 42).forEach(builder::add);
+    NameTrie trie = builder.build();
+
+    index = indexType.equals("compact") ? CompactNameTrie.of(trie) : trie;
+    tokens = tokenizer.tokenize(query);
+    autocompleteCache = new AutocompleteCache(
+        index,
+        tokenizer,
+        25,
+        DocTorConfig.parse("").cache()
+    );
+  }
+
+  @Benchmark
+  public List<String> tokenize() {
+    return tokenizer.tokenize(query);
+  }
+
+  @Benchmark
+  public Collection<String> findBest() {
+    return index.findBest(tokens);
+  }
+
+  @Benchmark
+  public List<String> autocompleteRanked() {
+    return index.autocompleteRanked(tokens, 25);
+  }
+
+  @Benchmark
+  public List<String> autocompleteCached() {
+    return autocompleteCache.complete(tokens);
+  }
+}
@@ -0,0 +1,93 @@
+package de.ialistannen.doctor.benchmarks;
+
+import de.ialistannen.doctor.DocSources;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.BuildResult;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import de.ialistannen.doctor.rendering.PrerenderedEmbed;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering embeds of elements with large javadoc. Elements are served from the element cache, so
+ * this mostly measures {@link DocEmbedBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class RenderBenchmark {
+
+  @Param({
+      "java.base/java.util.concurrent.ConcurrentHashMap",
+      "java.base/java.lang.String",
+      "java.base/java.util.regex.Pattern",
+      "java.base/java.lang.String#format(java.lang.String,java.lang.Object...)"
+  })
+  private String qualifiedName;
+
+  private DocSources sources;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException, IOException, InterruptedException {
+    sources = Fixtures.loadTemplate();
+    if (sources.embedBuilder(qualifiedName).isEmpty()) {
+      throw new IllegalStateException("The template database does not contain " + qualifiedName);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    sources.close();
+  }
+
+  @Benchmark
+  public BuildResult shortDescription() throws SQLException, IOException {
+    return render(DescriptionStyle.SHORT, false);
+  }
+
+  @Benchmark
+  public BuildResult longDescription() throws SQLException, IOException {
+    return render(DescriptionStyle.LONG, false);
+  }
+
+  @Benchmark
+  public BuildResult shortDescriptionWithTags() throws SQLException, IOException {
+    return render(DescriptionStyle.SHORT, true);
+  }
+
+  @Benchmark
+  public PrerenderedEmbed prerender() throws SQLException, IOException {
+    return sources.embedBuilder(qualifiedName).orElseThrow().prerender();
+  }
+
+  private BuildResult render(DescriptionStyle style, boolean tags)
+      throws SQLException, IOException {
+    return sources.embedBuilder(qualifiedName)
+        .orElseThrow()
+        .addColor()
+        .addTitle()
+        .addIcon(sources.linkResolver())
+        .addDeclaration()
+        .addTags(tags)
+        .addDescription(style)
+        .addFooter()
+        .build();
+  }
+}
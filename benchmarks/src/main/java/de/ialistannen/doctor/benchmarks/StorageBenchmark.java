@@ -0,0 +1,85 @@
+package de.ialistannen.doctor.benchmarks;
+
+import de.ialistannen.doctor.storage.ElementCache;
+import de.ialistannen.doctor.storage.MultiFileStorage;
+import de.ialistannen.doctor.storage.MultiFileStorage.ElementHeader;
+import de.ialistannen.doctor.storage.MultiFileStorage.FetchResult;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fetching elements from generated databases or the element stores converted from them, with and
+ * without the element cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class StorageBenchmark {
+
+  @Param({"10000", "100000"})
+  private int elementCount;
+
+  @Param({"true", "false"})
+  private boolean cached;
+
+  @Param({"false", "true"})
+  private boolean elementStore;
+
+  private MultiFileStorage storage;
+  private List<String> names;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException, IOException {
+    Path database = Fixtures.generateDatabase(elementCount);
+    ElementCache cache = cached
+        ? new ElementCache(64 * 1024 * 1024, 256 * 1024 * 1024, 16 * 1024 * 1024)
+        : new ElementCache(0, 0, 0);
+
+    names = new ArrayList<>();
+    storage = Fixtures.openStorage(database, elementStore, cache, names);
+    Collections.shuffle(names, new Random(42));
+  }
+
+  @Benchmark
+  public Optional<FetchResult> get() throws SQLException, IOException {
+    return storage.get(nextName());
+  }
+
+  @Benchmark
+  public Map<String, ElementHeader> getHeadersOfChooser() throws SQLException, IOException {
+    List<String> batch = new ArrayList<>(25);
+    for (int i = 0; i < 25; i++) {
+      batch.add(nextName());
+    }
+    return storage.getHeaders(batch);
+  }
+
+  private String nextName() {
+    next = (next + 1) % names.size();
+    return names.get(next);
+  }
+}
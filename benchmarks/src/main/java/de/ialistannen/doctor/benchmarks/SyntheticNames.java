@@ -0,0 +1,59 @@
+package de.ialistannen.doctor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates qualified names shaped like the ones in a JDK index: modules, packages, types, fields
+ * and methods with parameters.
+ */
+final class SyntheticNames {
+
+  private static final String[] WORDS = {
+      "String", "List", "Map", "Concurrent", "Hash", "Buffer", "Stream", "Reader", "Writer",
+      "Channel", "Builder", "Factory", "Handler", "Event", "Listener", "Node", "Tree", "Array",
+      "Set", "Queue", "Linked", "Atomic", "Reference", "Lock", "Executor", "Service", "Provider",
+      "Input", "Output", "Socket", "Path", "File", "Format", "Parser", "Value", "Type", "Element"
+  };
+  private static final String[] PARAMETER_TYPES = {
+      "int", "long", "boolean", "java.lang.String", "java.lang.Object", "java.util.List",
+      "java.lang.CharSequence", "java.util.function.Function"
+  };
+
+  static List<String> generate(int typeCount, long seed) {
+    Random random = new Random(seed);
+    List<String> names = new ArrayList<>();
+
+    for (int type = 0; type < typeCount; type++) {
+      String module = "java." + word(random).toLowerCase();
+      String pack = module + "." + word(random).toLowerCase() + "." + word(random).toLowerCase();
+      String typeName = pack + "." + word(random) + word(random) + type;
+      String qualifiedType = module + "/" + typeName;
+      names.add(qualifiedType);
+
+      int fields = random.nextInt(4);
+      for (int i = 0; i < fields; i++) {
+        names.add(qualifiedType + "#" + word(random).toUpperCase() + "_" + i);
+      }
+
+      int methods = 2 + random.nextInt(12);
+      for (int i = 0; i < methods; i++) {
+        String method = Character.toLowerCase(word(random).charAt(0)) + word(random).substring(1)
+            + word(random) + i;
+        List<String> parameters = new ArrayList<>();
+        int parameterCount = random.nextInt(4);
+        for (int j = 0; j < parameterCount; j++) {
+          parameters.add(PARAMETER_TYPES[random.nextInt(PARAMETER_TYPES.length)]);
+        }
+        names.add(qualifiedType + "#" + method + "(" + String.join(",", parameters) + ")");
+      }
+    }
+
+    return names;
+  }
+
+  private static String word(Random random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+}
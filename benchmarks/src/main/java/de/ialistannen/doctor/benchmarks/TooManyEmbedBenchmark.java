@@ -0,0 +1,67 @@
+package de.ialistannen.doctor.benchmarks;
+
+import de.ialistannen.doctor.DocSources;
+import de.ialistannen.doctor.buttons.StoredButtonState;
+import de.ialistannen.doctor.rendering.Chooser;
+import de.ialistannen.doctor.rendering.TooManyEmbedBuilder;
+import de.ialistannen.doctor.storage.ActiveMessages;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the chooser for an ambiguous query with the maximum of 25 candidates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class TooManyEmbedBenchmark {
+
+  @Param({"get", "String#valueOf"})
+  private String query;
+
+  private DocSources sources;
+  private TooManyEmbedBuilder builder;
+  private List<String> candidates;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException, IOException, InterruptedException {
+    sources = Fixtures.loadTemplate();
+    builder = new TooManyEmbedBuilder(
+        sources.storage(),
+        new StoredButtonState(new ActiveMessages())
+    );
+    candidates = sources.index()
+        .findBest(sources.tokenizer().tokenize(query))
+        .stream()
+        .limit(25)
+        .toList();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    sources.close();
+  }
+
+  @Benchmark
+  public Chooser buildChooser() throws SQLException, IOException {
+    return builder.buildChooser("benchmark", candidates);
+  }
+}
@@ -0,0 +1,308 @@
+package de.ialistannen.doctor;
+
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import de.ialistannen.doctor.index.CompactNameTrie;
+import de.ialistannen.doctor.index.IndexSnapshot;
+import de.ialistannen.doctor.index.NameIndex;
+import de.ialistannen.doctor.index.NameTokenizer;
+import de.ialistannen.doctor.index.NameTrie;
+import de.ialistannen.doctor.index.SourceFingerprint;
+import de.ialistannen.doctor.index.SourceRoutingIndex;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder;
+import de.ialistannen.doctor.rendering.PrerenderedEmbed;
+import de.ialistannen.doctor.rendering.PrerenderedStore;
+import de.ialistannen.doctor.storage.ElementCache;
+import de.ialistannen.doctor.storage.ElementCodec;
+import de.ialistannen.doctor.storage.ExternalJavadocCache;
+import de.ialistannen.doctor.storage.MultiFileStorage;
+import de.ialistannen.doctor.storage.MultiFileStorage.ElementHeader;
+import de.ialistannen.doctor.storage.MultiFileStorage.FetchResult;
+import de.ialistannen.doctor.storage.ElementSource;
+import de.ialistannen.doctor.storage.ElementStore;
+import de.ialistannen.doctor.storage.SourceDatabase;
+import de.ialistannen.javadocbpi.model.elements.DocumentedElement;
+import de.ialistannen.javadocbpi.model.elements.DocumentedElementReference;
+import de.ialistannen.javadocbpi.rendering.links.ExternalJavadocAwareLinkResolver;
+import de.ialistannen.javadocbpi.rendering.links.Java11PlusLinkResolver;
+import de.ialistannen.javadocbpi.rendering.links.LinkResolver;
+import de.ialistannen.javadocbpi.storage.JsonSerializer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Everything loaded from the configured sources: the search index, the element storage, the link
+ * resolver and the prerendered embeds.
+ */
+public class DocSources implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DocSources.class);
+
+  private final NameTokenizer tokenizer;
+  private final NameIndex index;
+  private final SourceRoutingIndex routing;
+  private final List<ElementSource> databases;
+  private final MultiFileStorage storage;
+  private final LinkResolver linkResolver;
+  private final List<Optional<PrerenderedStore>> prerendered;
+
+  private DocSources(
+      NameTokenizer tokenizer,
+      NameIndex index,
+      SourceRoutingIndex routing,
+      List<ElementSource> databases,
+      MultiFileStorage storage,
+      LinkResolver linkResolver,
+      List<Optional<PrerenderedStore>> prerendered
+  ) {
+    this.tokenizer = tokenizer;
+    this.index = index;
+    this.routing = routing;
+    this.databases = databases;
+    this.storage = storage;
+    this.linkResolver = linkResolver;
+    this.prerendered = prerendered;
+  }
+
+  public NameTokenizer tokenizer() {
+    return tokenizer;
+  }
+
+  public NameIndex index() {
+    return index;
+  }
+
+  public SourceRoutingIndex routing() {
+    return routing;
+  }
+
+  public MultiFileStorage storage() {
+    return storage;
+  }
+
+  public LinkResolver linkResolver() {
+    return linkResolver;
+  }
+
+  /**
+   * @param source the index of the source in config order
+   * @return the database of the source, or the element store converted from it
+   */
+  public ElementSource database(int source) {
+    return databases.get(source);
+  }
+
+  /**
+   * Prepares a builder for the embed of an element, fetching the element and its parent.
+   *
+   * @param qualifiedName the qualified name of the element
+   * @return the builder or an empty optional if the element does not exist
+   * @throws SQLException if reading the element fails
+   * @throws IOException if the element can not be decoded
+   */
+  public Optional<DocEmbedBuilder> embedBuilder(String qualifiedName)
+      throws SQLException, IOException {
+    Optional<FetchResult> documentedElement = storage.get(qualifiedName);
+    if (documentedElement.isEmpty()) {
+      return Optional.empty();
+    }
+    FetchResult result = documentedElement.get();
+
+    // The parent only contributes its icon to the title, which its header is enough for
+    Optional<DocumentedElement> parentElement = Optional.empty();
+    DocumentedElementReference ref = result.reference();
+    Optional<DocumentedElementReference> parentRef;
+    if (ref.isMethod() || ref.isField()) {
+      parentRef = ref.getType();
+    } else {
+      parentRef = ref.parent();
+    }
+    if (parentRef.isPresent()) {
+      parentElement = storage.getHeader(parentRef.get().asQualifiedName())
+          .map(ElementHeader::element);
+    }
+
+    return Optional.of(new DocEmbedBuilder(
+        linkResolver,
+        result.element(),
+        parentElement.orElse(null),
+        result.reference(),
+        result.config().javadocUrl()
+    ));
+  }
+
+  /**
+   * Looks up the prerendered embed of an element in the sidecar store of its source.
+   *
+   * @param qualifiedName the qualified name of the element
+   * @return the prerendered embed or an empty optional if there is none
+   * @throws SQLException if reading the store fails
+   * @throws IOException if the stored embed can not be decoded
+   */
+  public Optional<PrerenderedEmbed> prerendered(String qualifiedName)
+      throws SQLException, IOException {
+    OptionalInt source = routing.sourceOf(qualifiedName);
+    if (source.isEmpty()) {
+      return Optional.empty();
+    }
+    Optional<PrerenderedStore> store = prerendered.get(source.getAsInt());
+    if (store.isEmpty()) {
+      return Optional.empty();
+    }
+    return store.get().get(qualifiedName);
+  }
+
+  @Override
+  public void close() throws SQLException {
+    for (Optional<PrerenderedStore> store : prerendered) {
+      if (store.isPresent()) {
+        store.get().close();
+      }
+    }
+    for (ElementSource database : databases) {
+      database.close();
+    }
+    storage.close();
+  }
+
+  /**
+   * Opens all configured sources and loads (or builds) the search index.
+   *
+   * @param config the config to use
+   * @return the loaded sources
+   * @throws SQLException if a database can not be read
+   * @throws IOException if the index snapshot or external javadoc can not be loaded
+   * @throws InterruptedException if interrupted while fetching external javadoc
+   */
+  public static DocSources load(DocTorConfig config)
+      throws SQLException, IOException, InterruptedException {
+    ExternalJavadocAwareLinkResolver resolver = new ExternalJavadocAwareLinkResolver(
+        new Java11PlusLinkResolver(),
+        ExternalJavadocCache.forConfig(config).resolve(
+            config.sources().stream()
+                .map(SourceConfig::externalJavadoc)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .toList()
+        )
+    );
+
+    List<ElementSource> databases = new ArrayList<>();
+    List<Optional<PrerenderedStore>> prerendered = new ArrayList<>();
+    // Checksumming reads the whole database, so every source is checksummed at most once
+    List<SourceFingerprint> fingerprints = new ArrayList<>();
+    for (SourceConfig source : config.sources()) {
+      Optional<Path> prerenderedPath = source.prerenderedDatabasePath();
+      Optional<Path> elementStorePath = source.elementStorePath();
+      boolean needsFingerprint = prerenderedPath.isPresent()
+          || elementStorePath.isPresent()
+          || config.indexSnapshotPath().isPresent();
+      SourceFingerprint fingerprint = needsFingerprint ? SourceFingerprint.of(source) : null;
+      fingerprints.add(fingerprint);
+
+      Optional<ElementStore> elementStore = elementStorePath.isPresent()
+          ? ElementStore.open(elementStorePath.get(), fingerprint)
+          : Optional.empty();
+      databases.add(
+          elementStore.isPresent()
+              ? elementStore.get()
+              : new SourceDatabase(Path.of(source.database()), config.storage())
+      );
+      prerendered.add(
+          prerenderedPath.isPresent()
+              ? PrerenderedStore.open(
+                  prerenderedPath.get(),
+                  PrerenderedStore.fingerprint(config, source, fingerprint),
+                  config.storage()
+              )
+              : Optional.empty()
+      );
+    }
+
+    NameTokenizer tokenizer = new NameTokenizer();
+    LoadedIndex index = loadIndex(config, tokenizer, databases, fingerprints);
+
+    return new DocSources(
+        tokenizer,
+        index.names(),
+        index.routing(),
+        List.copyOf(databases),
+        new MultiFileStorage(
+            config.sources(),
+            databases,
+            index.routing(),
+            new ElementCodec(new JsonSerializer()),
+            new ElementCache(
+                config.cache().heapBytes(),
+                config.cache().offHeapBytes(),
+                config.cache().headerBytes()
+            )
+        ),
+        resolver,
+        prerendered
+    );
+  }
+
+  private static LoadedIndex loadIndex(
+      DocTorConfig config,
+      NameTokenizer tokenizer,
+      List<ElementSource> databases,
+      List<SourceFingerprint> fingerprints
+  ) throws SQLException, IOException {
+    Optional<IndexSnapshot> snapshot = config.indexSnapshotPath().map(IndexSnapshot::new);
+    SourceFingerprint fingerprint = null;
+
+    if (snapshot.isPresent()) {
+      fingerprint = SourceFingerprint.combine(fingerprints);
+      Optional<IndexSnapshot.Contents> contents = snapshot.get().read(fingerprint);
+      if (contents.isPresent()) {
+        CompactNameTrie compactTrie = contents.get().trie();
+        LOGGER.info("Loaded index snapshot. {}", compactTrie.memoryReport());
+        return new LoadedIndex(
+            config.useCompactIndex() ? compactTrie : NameTrie.copyOf(tokenizer, compactTrie),
+            contents.get().routing()
+        );
+      }
+    }
+
+    List<String> names = new ArrayList<>();
+    SourceRoutingIndex.Builder routing = SourceRoutingIndex.builder();
+    for (int i = 0; i < config.sources().size(); i++) {
+      int sourceIndex = i;
+      databases.get(i).forEachName(name -> {
+        names.add(name);
+        routing.add(name, sourceIndex);
+      });
+    }
+    CompactNameTrie compactTrie = CompactNameTrie.of(tokenizer, names);
+    LOGGER.info("Built index. {}", compactTrie.memoryReport());
+
+    IndexSnapshot.Contents contents = new IndexSnapshot.Contents(
+        compactTrie,
+        routing.build(compactTrie)
+    );
+    if (snapshot.isPresent()) {
+      try {
+        snapshot.get().write(fingerprint, contents);
+      } catch (IOException e) {
+        LOGGER.warn("Could not write index snapshot, continuing without it", e);
+      }
+    }
+
+    return new LoadedIndex(
+        config.useCompactIndex() ? compactTrie : NameTrie.copyOf(tokenizer, compactTrie),
+        contents.routing()
+    );
+  }
+
+  private record LoadedIndex(NameIndex names, SourceRoutingIndex routing) {
+
+  }
+}
@@ -0,0 +1,96 @@
+package de.ialistannen.doctor;
+
+import de.ialistannen.doctor.api.ApiServer;
+import de.ialistannen.doctor.command.CommandListener;
+import de.ialistannen.doctor.command.DocCommand;
+import de.ialistannen.doctor.engine.DocEngine;
+import de.ialistannen.doctor.metrics.GatewayMetricsListener;
+import de.ialistannen.doctor.metrics.Metrics;
+import de.ialistannen.doctor.rendering.Prerenderer;
+import de.ialistannen.doctor.replay.InteractionRecorder;
+import de.ialistannen.doctor.replay.ReplayRunner;
+import de.ialistannen.doctor.storage.ActiveMessages;
+import de.ialistannen.doctor.storage.ElementStoreConverter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DocTor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DocTor.class);
+
+  public static void main(String[] args) throws IOException, InterruptedException, SQLException {
+    if (args.length == 2 && args[0].equals("prerender")) {
+      DocTorConfig config = DocTorConfig.read(Path.of(args[1]));
+      try (DocSources sources = DocSources.load(config)) {
+        new Prerenderer(config, sources).prerenderAll();
+      }
+      return;
+    }
+    if (args.length == 2 && args[0].equals("convert")) {
+      new ElementStoreConverter(DocTorConfig.read(Path.of(args[1]))).convertAll();
+      return;
+    }
+    if (args.length >= 1 && args[0].equals("replay")) {
+      ReplayRunner.run(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+
+    Path configFile = Path.of(args[0]);
+    DocTorConfig config = DocTorConfig.read(configFile);
+
+    ActiveMessages activeMessages = ActiveMessages.open(config.activeMessages());
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        activeMessages.close();
+      } catch (IOException e) {
+        LOGGER.warn("Could not close the active messages", e);
+      }
+    }));
+    DocEngine engine = DocEngine.create(config, activeMessages);
+    if (config.metrics().isEnabled()) {
+      Metrics.serve(config.metrics());
+    }
+    if (config.api().isEnabled()) {
+      ApiServer.serve(config.api(), engine);
+    }
+
+    InteractionRecorder recorder = InteractionRecorder.open(config.recording());
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        recorder.close();
+      } catch (IOException e) {
+        LOGGER.warn("Could not close the interaction recorder", e);
+      }
+    }));
+
+    // All shards share the listener and with it the loaded sources
+    CommandListener listener = new CommandListener(config, new DocCommand(engine), recorder);
+    GatewayMetricsListener gatewayMetrics = new GatewayMetricsListener();
+    if (config.shards().isEnabled()) {
+      ShardManager shardManager = DefaultShardManagerBuilder.createDefault(config.token())
+          .setShardsTotal(config.shards().total())
+          .addEventListeners(listener, gatewayMetrics)
+          .build();
+      LOGGER.info("Starting {} shards", shardManager.getShardsTotal());
+    } else {
+      JDA jda = JDABuilder.createDefault(config.token())
+          .addEventListeners(listener, gatewayMetrics)
+          .build()
+          .awaitReady();
+      System.out.println(jda.getInviteUrl());
+    }
+
+    if (config.reload().isEnabled()) {
+      new SourceWatcher(configFile, config.reload().quietPeriod(), engine::reload)
+          .start(config);
+    }
+  }
+}
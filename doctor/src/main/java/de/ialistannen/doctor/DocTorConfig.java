@@ -0,0 +1,316 @@
+package de.ialistannen.doctor;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.dataformat.toml.TomlMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+public record DocTorConfig(
+    @JsonProperty("token") String token,
+    @JsonProperty("author_id") String authorId,
+    @JsonProperty("sources") List<SourceConfig> sources,
+    @JsonProperty("external_javadoc_cache") String externalJavadocCache,
+    @JsonProperty("external_javadoc_timeout_seconds") Integer externalJavadocTimeoutSeconds,
+    @JsonProperty("external_javadoc_max_age_hours") Integer externalJavadocMaxAgeHours,
+    @JsonProperty("index_snapshot") String indexSnapshot,
+    @JsonProperty("compact_index") Boolean compactIndex,
+    @JsonProperty("cache") CacheConfig cache,
+    @JsonProperty("execution") ExecutionConfig execution,
+    @JsonProperty("metrics") MetricsConfig metrics,
+    @JsonProperty("reload") ReloadConfig reload,
+    @JsonProperty("active_messages") ActiveMessagesConfig activeMessages,
+    @JsonProperty("buttons") ButtonConfig buttons,
+    @JsonProperty("shards") ShardConfig shards,
+    @JsonProperty("api") ApiConfig api,
+    @JsonProperty("recording") RecordingConfig recording,
+    @JsonProperty("storage") StorageConfig storage
+) {
+
+  @Override
+  public StorageConfig storage() {
+    return Optional.ofNullable(storage).orElse(new StorageConfig(null, null, null));
+  }
+
+  @Override
+  public RecordingConfig recording() {
+    return Optional.ofNullable(recording).orElse(new RecordingConfig(null));
+  }
+
+  @Override
+  public ApiConfig api() {
+    return Optional.ofNullable(api).orElse(new ApiConfig(null, null));
+  }
+
+  @Override
+  public ShardConfig shards() {
+    return Optional.ofNullable(shards).orElse(new ShardConfig(null, null));
+  }
+
+  @Override
+  public ExecutionConfig execution() {
+    return Optional.ofNullable(execution).orElse(new ExecutionConfig(null, null, null));
+  }
+
+  @Override
+  public ButtonConfig buttons() {
+    return Optional.ofNullable(buttons).orElse(new ButtonConfig(null, null));
+  }
+
+  @Override
+  public ActiveMessagesConfig activeMessages() {
+    return Optional.ofNullable(activeMessages)
+        .orElse(new ActiveMessagesConfig(null, null, null, null, null));
+  }
+
+  @Override
+  public ReloadConfig reload() {
+    return Optional.ofNullable(reload).orElse(new ReloadConfig(null, null));
+  }
+
+  @Override
+  public MetricsConfig metrics() {
+    return Optional.ofNullable(metrics).orElse(new MetricsConfig(null, null));
+  }
+
+  @Override
+  public CacheConfig cache() {
+    return Optional.ofNullable(cache)
+        .orElse(new CacheConfig(null, null, null, null, null, null, null));
+  }
+
+  public boolean useCompactIndex() {
+    return compactIndex == null || compactIndex;
+  }
+
+  public Optional<Path> indexSnapshotPath() {
+    return Optional.ofNullable(indexSnapshot).map(Path::of);
+  }
+
+  public Optional<Path> externalJavadocCachePath() {
+    return Optional.ofNullable(externalJavadocCache).map(Path::of);
+  }
+
+  public Duration externalJavadocTimeout() {
+    return Duration.ofSeconds(Optional.ofNullable(externalJavadocTimeoutSeconds).orElse(15));
+  }
+
+  public Duration externalJavadocMaxAge() {
+    return Duration.ofHours(Optional.ofNullable(externalJavadocMaxAgeHours).orElse(24));
+  }
+
+  public record SourceConfig(
+      @JsonProperty("database") String database,
+      @JsonProperty("external_javadoc") List<String> externalJavadoc,
+      @JsonProperty("javadoc_url") String javadocUrl,
+      @JsonProperty("prerendered_database") String prerenderedDatabase,
+      @JsonProperty("element_store") String elementStore
+  ) {
+
+    public Optional<Path> prerenderedDatabasePath() {
+      return Optional.ofNullable(prerenderedDatabase).map(Path::of);
+    }
+
+    public Optional<Path> elementStorePath() {
+      return Optional.ofNullable(elementStore).map(Path::of);
+    }
+  }
+
+  public record CacheConfig(
+      @JsonProperty("heap_megabytes") Integer heapMegabytes,
+      @JsonProperty("off_heap_megabytes") Integer offHeapMegabytes,
+      @JsonProperty("header_megabytes") Integer headerMegabytes,
+      @JsonProperty("rendered_embeds") Integer renderedEmbeds,
+      @JsonProperty("autocomplete_names") Integer autocompleteNames,
+      @JsonProperty("autocomplete_max_candidates") Integer autocompleteMaxCandidates,
+      @JsonProperty("autocomplete_expire_seconds") Integer autocompleteExpireSeconds
+  ) {
+
+    public long heapBytes() {
+      return Optional.ofNullable(heapMegabytes).orElse(64) * 1024L * 1024L;
+    }
+
+    public long offHeapBytes() {
+      return Optional.ofNullable(offHeapMegabytes).orElse(256) * 1024L * 1024L;
+    }
+
+    public long headerBytes() {
+      return Optional.ofNullable(headerMegabytes).orElse(16) * 1024L * 1024L;
+    }
+
+    public int maxRenderedEmbeds() {
+      return Optional.ofNullable(renderedEmbeds).orElse(2000);
+    }
+
+    public int maxAutocompleteNames() {
+      return Optional.ofNullable(autocompleteNames).orElse(500_000);
+    }
+
+    public int maxAutocompleteCandidates() {
+      return Optional.ofNullable(autocompleteMaxCandidates).orElse(2000);
+    }
+
+    public Duration autocompleteExpireAfter() {
+      return Duration.ofSeconds(Optional.ofNullable(autocompleteExpireSeconds).orElse(300));
+    }
+  }
+
+  public record StorageConfig(
+      @JsonProperty("connections_per_source") Integer connectionsPerSource,
+      @JsonProperty("mmap_megabytes") Integer mmapMegabytes,
+      @JsonProperty("cache_kilobytes") Integer cacheKilobytes
+  ) {
+
+    public int connectionPoolSize() {
+      return Optional.ofNullable(connectionsPerSource)
+          .orElse(Runtime.getRuntime().availableProcessors());
+    }
+
+    public long mmapBytes() {
+      return Optional.ofNullable(mmapMegabytes).orElse(256) * 1024L * 1024L;
+    }
+
+    public long cacheBytes() {
+      return Optional.ofNullable(cacheKilobytes).orElse(2048) * 1024L;
+    }
+  }
+
+  public record ExecutionConfig(
+      @JsonProperty("async") Boolean async,
+      @JsonProperty("max_concurrency") Integer maxConcurrency,
+      @JsonProperty("defer_after_millis") Integer deferAfterMillis
+  ) {
+
+    public boolean isAsync() {
+      return async == null || async;
+    }
+
+    public int concurrencyLimit() {
+      return Optional.ofNullable(maxConcurrency).orElse(64);
+    }
+
+    public Duration deferAfter() {
+      return Duration.ofMillis(Optional.ofNullable(deferAfterMillis).orElse(1500));
+    }
+  }
+
+  public record MetricsConfig(
+      @JsonProperty("port") Integer port,
+      @JsonProperty("bind_address") String bindAddress
+  ) {
+
+    public boolean isEnabled() {
+      return port != null;
+    }
+
+    public String bindHost() {
+      return Optional.ofNullable(bindAddress).orElse("127.0.0.1");
+    }
+  }
+
+  public record ApiConfig(
+      @JsonProperty("port") Integer port,
+      @JsonProperty("bind_address") String bindAddress
+  ) {
+
+    public boolean isEnabled() {
+      return port != null;
+    }
+
+    public String bindHost() {
+      return Optional.ofNullable(bindAddress).orElse("127.0.0.1");
+    }
+  }
+
+  public record RecordingConfig(
+      @JsonProperty("file") String file
+  ) {
+
+    public Optional<Path> filePath() {
+      return Optional.ofNullable(file).map(Path::of);
+    }
+  }
+
+  public record ReloadConfig(
+      @JsonProperty("enabled") Boolean enabled,
+      @JsonProperty("quiet_period_seconds") Integer quietPeriodSeconds
+  ) {
+
+    public boolean isEnabled() {
+      return enabled != null && enabled;
+    }
+
+    public Duration quietPeriod() {
+      return Duration.ofSeconds(Optional.ofNullable(quietPeriodSeconds).orElse(10));
+    }
+  }
+
+  public record ActiveMessagesConfig(
+      @JsonProperty("directory") String directory,
+      @JsonProperty("memory_entries") Integer memoryEntries,
+      @JsonProperty("ttl_days") Integer ttlDays,
+      @JsonProperty("segment_megabytes") Integer segmentMegabytes,
+      @JsonProperty("max_disk_megabytes") Integer maxDiskMegabytes
+  ) {
+
+    public Optional<Path> directoryPath() {
+      return Optional.ofNullable(directory).map(Path::of);
+    }
+
+    public int maxMemoryEntries() {
+      return Optional.ofNullable(memoryEntries).orElse(10_000);
+    }
+
+    public Duration timeToLive() {
+      return Duration.ofDays(Optional.ofNullable(ttlDays).orElse(14));
+    }
+
+    public long segmentBytes() {
+      return Optional.ofNullable(segmentMegabytes).orElse(16) * 1024L * 1024L;
+    }
+
+    public long maxDiskBytes() {
+      return Optional.ofNullable(maxDiskMegabytes).orElse(256) * 1024L * 1024L;
+    }
+  }
+
+  public record ButtonConfig(
+      @JsonProperty("stateless") Boolean stateless,
+      @JsonProperty("secret") String secret
+  ) {
+
+    public boolean isStateless() {
+      return stateless != null && stateless;
+    }
+  }
+
+  public record ShardConfig(
+      @JsonProperty("enabled") Boolean enabled,
+      @JsonProperty("count") Integer count
+  ) {
+
+    public boolean isEnabled() {
+      return enabled != null && enabled;
+    }
+
+    /**
+     * @return the total amount of shards or -1 to use the amount recommended by Discord
+     */
+    public int total() {
+      return Optional.ofNullable(count).orElse(-1);
+    }
+  }
+
+  public static DocTorConfig read(Path file) throws IOException {
+    return parse(Files.readString(file));
+  }
+
+  public static DocTorConfig parse(String toml) throws IOException {
+    TomlMapper mapper = TomlMapper.builder().build();
+
+    return mapper.readValue(toml, DocTorConfig.class);
+  }
+}
@@ -0,0 +1,175 @@
+package de.ialistannen.doctor;
+
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the config file and the databases it references and reloads the sources when they
+ * change.
+ * <p>
+ * Writing a database takes a while, so a reload only starts once no watched file changed for the
+ * quiet period. Databases should be replaced by moving a finished file into place: queries that are
+ * still running against the previous sources keep reading the old file until they are done.
+ */
+public class SourceWatcher implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SourceWatcher.class);
+
+  private final Path configFile;
+  private final Duration quietPeriod;
+  private final Reloader reloader;
+  private final WatchService watchService;
+  private final ScheduledExecutorService scheduler;
+  private final Map<Path, WatchKey> watchedDirectories;
+  private volatile Set<Path> watchedFiles;
+  private ScheduledFuture<?> pendingReload;
+
+  public SourceWatcher(Path configFile, Duration quietPeriod, Reloader reloader)
+      throws IOException {
+    this.configFile = configFile.toAbsolutePath().normalize();
+    this.quietPeriod = quietPeriod;
+    this.reloader = reloader;
+    this.watchService = FileSystems.getDefault().newWatchService();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "source-reload");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.watchedDirectories = new HashMap<>();
+    this.watchedFiles = Set.of();
+  }
+
+  /**
+   * Starts watching the files referenced by the given config.
+   *
+   * @param config the config the current sources were loaded from
+   * @throws IOException if a directory can not be watched
+   */
+  public void start(DocTorConfig config) throws IOException {
+    watch(config);
+
+    Thread thread = new Thread(this::processEvents, "source-watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private synchronized void watch(DocTorConfig config) throws IOException {
+    Set<Path> files = new HashSet<>();
+    files.add(configFile);
+    for (SourceConfig source : config.sources()) {
+      files.add(Path.of(source.database()).toAbsolutePath().normalize());
+      source.prerenderedDatabasePath()
+          .ifPresent(it -> files.add(it.toAbsolutePath().normalize()));
+      source.elementStorePath()
+          .ifPresent(it -> files.add(it.toAbsolutePath().normalize()));
+    }
+
+    Set<Path> directories = new HashSet<>();
+    for (Path file : files) {
+      directories.add(file.getParent());
+    }
+    for (Path directory : directories) {
+      if (!watchedDirectories.containsKey(directory)) {
+        watchedDirectories.put(
+            directory,
+            directory.register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE
+            )
+        );
+      }
+    }
+    watchedDirectories.entrySet().removeIf(entry -> {
+      if (directories.contains(entry.getKey())) {
+        return false;
+      }
+      entry.getValue().cancel();
+      return true;
+    });
+
+    watchedFiles = Set.copyOf(files);
+  }
+
+  private void processEvents() {
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+
+      Path directory = (Path) key.watchable();
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+          scheduleReload();
+          continue;
+        }
+        Path file = directory.resolve((Path) event.context());
+        if (watchedFiles.contains(file)) {
+          LOGGER.debug("{} changed", file);
+          scheduleReload();
+        }
+      }
+      key.reset();
+    }
+  }
+
+  private synchronized void scheduleReload() {
+    if (pendingReload != null) {
+      pendingReload.cancel(false);
+    }
+    pendingReload = scheduler.schedule(this::reload, quietPeriod.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void reload() {
+    LOGGER.info("Sources changed, reloading");
+    long start = System.currentTimeMillis();
+    try {
+      DocTorConfig config = DocTorConfig.read(configFile);
+      reloader.reload(config);
+      watch(config);
+      LOGGER.info("Reloaded sources in {}ms", System.currentTimeMillis() - start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      LOGGER.error("Could not reload sources, keeping the previous ones", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    scheduler.shutdownNow();
+    watchService.close();
+  }
+
+  /**
+   * Loads new sources and swaps them in.
+   */
+  @FunctionalInterface
+  public interface Reloader {
+
+    void reload(DocTorConfig config) throws SQLException, IOException, InterruptedException;
+  }
+}
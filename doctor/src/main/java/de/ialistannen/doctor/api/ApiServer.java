@@ -0,0 +1,174 @@
+package de.ialistannen.doctor.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.ialistannen.doctor.DocTorConfig.ApiConfig;
+import de.ialistannen.doctor.engine.DocEngine;
+import de.ialistannen.doctor.metrics.InteractionType;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.BuildResult;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A local HTTP JSON API in front of a {@link DocEngine}, so lookups can be load tested or embedded
+ * without a Discord connection.
+ * <p>
+ * Endpoints, all {@code GET}:
+ * <ul>
+ *   <li>{@code /lookup?query=...}: the names the slash command would find</li>
+ *   <li>{@code /autocomplete?query=...}: the autocomplete choices for a partial query</li>
+ *   <li>{@code /render?name=...&style=short|long&tags=true|false}: the rendered embed of an
+ *   element</li>
+ * </ul>
+ */
+public class ApiServer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ApiServer.class);
+  private static final JsonMapper MAPPER = JsonMapper.builder()
+      .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+      .serializationInclusion(Include.NON_NULL)
+      .build();
+
+  private final DocEngine engine;
+
+  private ApiServer(DocEngine engine) {
+    this.engine = engine;
+  }
+
+  /**
+   * Starts serving the API. Requests are handled on virtual threads.
+   *
+   * @param config the api config
+   * @param engine the engine to answer requests with
+   * @throws IOException if the server can not be started
+   */
+  public static void serve(ApiConfig config, DocEngine engine) throws IOException {
+    ApiServer api = new ApiServer(engine);
+    HttpServer server = HttpServer.create(
+        new InetSocketAddress(config.bindHost(), config.port()), 0
+    );
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.createContext("/lookup", exchange -> api.handle(exchange, api::lookup));
+    server.createContext("/autocomplete", exchange -> api.handle(exchange, api::autocomplete));
+    server.createContext("/render", exchange -> api.handle(exchange, api::render));
+    server.start();
+    LOGGER.info("Serving api on {}:{}", config.bindHost(), config.port());
+  }
+
+  private Response lookup(Map<String, String> parameters) {
+    String query = required(parameters, "query");
+    return Response.ok(Map.of(
+        "query", query,
+        "matches", engine.lookup(query, InteractionType.API)
+    ));
+  }
+
+  private Response autocomplete(Map<String, String> parameters) {
+    String query = required(parameters, "query").strip();
+    return Response.ok(Map.of(
+        "query", query,
+        "choices", engine.autocomplete(query, InteractionType.API)
+    ));
+  }
+
+  private Response render(Map<String, String> parameters) throws Exception {
+    String name = required(parameters, "name");
+    DescriptionStyle style = DescriptionStyle.valueOf(
+        parameters.getOrDefault("style", "short").toUpperCase(Locale.ROOT)
+    );
+    boolean tags = Boolean.parseBoolean(parameters.getOrDefault("tags", "false"));
+
+    Optional<BuildResult> result = engine.render(name, style, tags, InteractionType.API);
+    if (result.isEmpty()) {
+      return new Response(404, Map.of("error", "Unknown element '" + name + "'"));
+    }
+
+    return Response.ok(Map.of(
+        "embed", result.get().embed(),
+        "truncated_description", result.get().truncatedDescription()
+    ));
+  }
+
+  private void handle(HttpExchange exchange, Handler handler) throws IOException {
+    try (exchange) {
+      Response response;
+      if (!exchange.getRequestMethod().equals("GET")) {
+        response = new Response(405, Map.of("error", "Only GET is supported"));
+      } else {
+        response = run(handler, parseQuery(exchange.getRequestURI().getRawQuery()));
+      }
+
+      byte[] body = MAPPER.writeValueAsBytes(response.body());
+      exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+      exchange.sendResponseHeaders(response.status(), body.length);
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        outputStream.write(body);
+      }
+    }
+  }
+
+  private static Response run(Handler handler, Map<String, String> parameters) {
+    try {
+      return handler.handle(parameters);
+    } catch (IllegalArgumentException e) {
+      return new Response(400, Map.of("error", String.valueOf(e.getMessage())));
+    } catch (Exception e) {
+      LOGGER.error("Error handling api request", e);
+      return new Response(500, Map.of("error", "Internal error"));
+    }
+  }
+
+  private static String required(Map<String, String> parameters, String name) {
+    String value = parameters.get(name);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("Missing parameter '" + name + "'");
+    }
+    return value;
+  }
+
+  private static Map<String, String> parseQuery(String rawQuery) {
+    Map<String, String> parameters = new HashMap<>();
+    if (rawQuery == null) {
+      return parameters;
+    }
+    for (String pair : rawQuery.split("&")) {
+      int separator = pair.indexOf('=');
+      if (separator < 0) {
+        parameters.put(decode(pair), "");
+      } else {
+        parameters.put(decode(pair.substring(0, separator)), decode(pair.substring(separator + 1)));
+      }
+    }
+    return parameters;
+  }
+
+  private static String decode(String value) {
+    return URLDecoder.decode(value, StandardCharsets.UTF_8);
+  }
+
+  private interface Handler {
+
+    Response handle(Map<String, String> parameters) throws Exception;
+  }
+
+  private record Response(int status, Object body) {
+
+    private static Response ok(Object body) {
+      return new Response(200, body);
+    }
+  }
+}
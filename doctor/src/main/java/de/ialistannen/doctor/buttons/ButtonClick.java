@@ -0,0 +1,43 @@
+package de.ialistannen.doctor.buttons;
+
+import de.ialistannen.doctor.command.MessageCommand;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveChooser;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveMessage;
+
+/**
+ * The state behind a clicked button.
+ */
+public sealed interface ButtonClick {
+
+  /**
+   * @return the id of the user who may use the button
+   */
+  String ownerId();
+
+  /**
+   * A button choosing one of multiple matches.
+   *
+   * @param chooser the chosen element
+   */
+  record Chooser(ActiveChooser chooser) implements ButtonClick {
+
+    @Override
+    public String ownerId() {
+      return chooser.ownerId();
+    }
+  }
+
+  /**
+   * A button below a documentation message.
+   *
+   * @param message the state of the message
+   * @param command the command of the button
+   */
+  record Message(ActiveMessage message, MessageCommand command) implements ButtonClick {
+
+    @Override
+    public String ownerId() {
+      return message.ownerId();
+    }
+  }
+}
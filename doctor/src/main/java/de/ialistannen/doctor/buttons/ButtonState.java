@@ -0,0 +1,84 @@
+package de.ialistannen.doctor.buttons;
+
+import de.ialistannen.doctor.DocTorConfig.ButtonConfig;
+import de.ialistannen.doctor.command.MessageCommand;
+import de.ialistannen.doctor.index.NameIndex;
+import de.ialistannen.doctor.storage.ActiveMessages;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveChooser;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveMessage;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Assigns ids to buttons and resolves clicked buttons back to their state.
+ */
+public interface ButtonState {
+
+  /**
+   * The minimum length of the secret signing stateless buttons.
+   */
+  int MIN_SECRET_LENGTH = 32;
+
+  /**
+   * @param chooser the element the button chooses
+   * @return the id of the button
+   */
+  String chooserButton(ActiveChooser chooser);
+
+  /**
+   * @param message the message the button belongs to
+   * @param command the command of the button
+   * @return the id of the button
+   */
+  String messageButton(ActiveMessage message, MessageCommand command);
+
+  /**
+   * Called after a message with buttons was sent or edited.
+   *
+   * @param messageId the id of the message
+   * @param message the new state of the message
+   */
+  void messageUpdated(String messageId, ActiveMessage message);
+
+  /**
+   * Called after a message with buttons was deleted.
+   *
+   * @param messageId the id of the message
+   */
+  void messageDeleted(String messageId);
+
+  /**
+   * Resolves a clicked button.
+   *
+   * @param componentId the id of the button
+   * @param messageId the id of the message the button belongs to
+   * @return the state or an empty optional if it is unknown or the button was forged
+   */
+  Optional<ButtonClick> resolve(String componentId, String messageId);
+
+  /**
+   * Creates the configured button state.
+   *
+   * @param config the button config
+   * @param activeMessages the active messages to store state in
+   * @param index the current name index
+   * @return the button state
+   */
+  static ButtonState forConfig(
+      ButtonConfig config,
+      ActiveMessages activeMessages,
+      Supplier<NameIndex> index
+  ) {
+    if (!config.isStateless()) {
+      return new StoredButtonState(activeMessages);
+    }
+    if (config.secret() == null || config.secret().strip().length() < MIN_SECRET_LENGTH) {
+      throw new IllegalArgumentException(
+          "Stateless buttons need a secret of at least " + MIN_SECRET_LENGTH + " characters"
+      );
+    }
+    return new SignedButtonState(
+        config.secret(), index, new StoredButtonState(activeMessages)
+    );
+  }
+}
@@ -0,0 +1,204 @@
+package de.ialistannen.doctor.buttons;
+
+import de.ialistannen.doctor.command.MessageCommand;
+import de.ialistannen.doctor.index.NameIndex;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveChooser;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveMessage;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encodes all button state into the button id and signs it, so clicks need no stored state and
+ * every instance sharing the secret can handle them.
+ * <p>
+ * Layout before Base64 encoding: kind, owner id, element id, checksum of the element name, flags
+ * and a truncated HMAC-SHA256 of everything before it. Element ids are ids in the name index, which
+ * change when the sources do. The checksum makes such buttons unknown instead of showing a
+ * different element. The flags hold the description style, tags, expandable and the ordinal of the
+ * {@link MessageCommand}.
+ * <p>
+ * Elements that are not in the current name index, like the target of a not found message or an
+ * element removed by a reload, have no id to sign. Their buttons use the fallback state instead.
+ */
+public class SignedButtonState implements ButtonState {
+
+  private static final String PREFIX = "s:";
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private static final byte KIND_CHOOSER = 0;
+  private static final byte KIND_MESSAGE = 1;
+  private static final int PAYLOAD_SIZE = 1 + Long.BYTES + 2 * Integer.BYTES + 1;
+  private static final int MAC_SIZE = 12;
+
+  private static final int FLAG_LONG_DESCRIPTION = 1;
+  private static final int FLAG_TAGS = 1 << 1;
+  private static final int FLAG_EXPANDABLE = 1 << 2;
+  private static final int COMMAND_SHIFT = 3;
+
+  private final SecretKeySpec key;
+  private final Supplier<NameIndex> index;
+  private final ButtonState fallback;
+
+  /**
+   * Creates a new button state.
+   *
+   * @param secret the secret to sign ids with
+   * @param index supplies the current name index to resolve element ids with
+   * @param fallback the state used for elements that are not in the name index
+   */
+  public SignedButtonState(String secret, Supplier<NameIndex> index, ButtonState fallback) {
+    this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    this.index = index;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public String chooserButton(ActiveChooser chooser) {
+    OptionalInt elementId = index.get().idOf(chooser.qualifiedName());
+    if (elementId.isEmpty()) {
+      return fallback.chooserButton(chooser);
+    }
+    return encode(
+        KIND_CHOOSER, chooser.ownerId(), elementId.getAsInt(), chooser.qualifiedName(), 0
+    );
+  }
+
+  @Override
+  public String messageButton(ActiveMessage message, MessageCommand command) {
+    OptionalInt elementId = index.get().idOf(message.qualifiedName());
+    if (elementId.isEmpty()) {
+      return fallback.messageButton(message, command);
+    }
+
+    int flags = command.ordinal() << COMMAND_SHIFT;
+    if (message.descriptionStyle() == DescriptionStyle.LONG) {
+      flags |= FLAG_LONG_DESCRIPTION;
+    }
+    if (message.tags()) {
+      flags |= FLAG_TAGS;
+    }
+    if (message.expandable()) {
+      flags |= FLAG_EXPANDABLE;
+    }
+    return encode(
+        KIND_MESSAGE, message.ownerId(), elementId.getAsInt(), message.qualifiedName(), flags
+    );
+  }
+
+  @Override
+  public void messageUpdated(String messageId, ActiveMessage message) {
+    // Signed buttons carry everything in their ids, only fallback buttons need stored state
+    if (index.get().idOf(message.qualifiedName()).isEmpty()) {
+      fallback.messageUpdated(messageId, message);
+    }
+  }
+
+  @Override
+  public void messageDeleted(String messageId) {
+    fallback.messageDeleted(messageId);
+  }
+
+  @Override
+  public Optional<ButtonClick> resolve(String componentId, String messageId) {
+    if (!componentId.startsWith(PREFIX)) {
+      return fallback.resolve(componentId, messageId);
+    }
+    byte[] bytes;
+    try {
+      bytes = DECODER.decode(componentId.substring(PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+    if (bytes.length != PAYLOAD_SIZE + MAC_SIZE) {
+      return Optional.empty();
+    }
+    byte[] expectedMac = Arrays.copyOf(mac(bytes), MAC_SIZE);
+    byte[] actualMac = Arrays.copyOfRange(bytes, PAYLOAD_SIZE, bytes.length);
+    if (!MessageDigest.isEqual(expectedMac, actualMac)) {
+      return Optional.empty();
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    byte kind = buffer.get();
+    String ownerId = Long.toString(buffer.getLong());
+    int elementId = buffer.getInt();
+    int checksum = buffer.getInt();
+    int flags = Byte.toUnsignedInt(buffer.get());
+
+    NameIndex names = index.get();
+    if (elementId < 0 || elementId >= names.size()) {
+      return Optional.empty();
+    }
+    String qualifiedName = names.name(elementId);
+    if (checksum(qualifiedName) != checksum) {
+      return Optional.empty();
+    }
+
+    if (kind == KIND_CHOOSER) {
+      return Optional.of(new ButtonClick.Chooser(new ActiveChooser(ownerId, qualifiedName)));
+    }
+
+    MessageCommand[] commands = MessageCommand.values();
+    int command = flags >>> COMMAND_SHIFT;
+    if (kind != KIND_MESSAGE || command >= commands.length) {
+      return Optional.empty();
+    }
+    ActiveMessage message = new ActiveMessage(
+        ownerId,
+        qualifiedName,
+        (flags & FLAG_LONG_DESCRIPTION) != 0 ? DescriptionStyle.LONG : DescriptionStyle.SHORT,
+        (flags & FLAG_TAGS) != 0,
+        (flags & FLAG_EXPANDABLE) != 0
+    );
+    return Optional.of(new ButtonClick.Message(message, commands[command]));
+  }
+
+  private String encode(
+      byte kind,
+      String ownerId,
+      int elementId,
+      String qualifiedName,
+      int flags
+  ) {
+    ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_SIZE + MAC_SIZE)
+        .put(kind)
+        .putLong(Long.parseLong(ownerId))
+        .putInt(elementId)
+        .putInt(checksum(qualifiedName))
+        .put((byte) flags);
+    buffer.put(mac(buffer.array()), 0, MAC_SIZE);
+
+    return PREFIX + ENCODER.encodeToString(buffer.array());
+  }
+
+  private byte[] mac(byte[] bytes) {
+    try {
+      // Mac instances are not thread safe and cheap to create
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      mac.update(bytes, 0, PAYLOAD_SIZE);
+      return mac.doFinal();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Could not sign button id", e);
+    }
+  }
+
+  private static int checksum(String qualifiedName) {
+    CRC32C crc = new CRC32C();
+    crc.update(qualifiedName.getBytes(StandardCharsets.UTF_8));
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,55 @@
+package de.ialistannen.doctor.buttons;
+
+import de.ialistannen.doctor.command.MessageCommand;
+import de.ialistannen.doctor.storage.ActiveMessages;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveChooser;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveMessage;
+import java.util.Optional;
+
+/**
+ * Keeps button state in {@link ActiveMessages}. Choosers get a random id, message buttons are
+ * looked up by the id of their message.
+ */
+public class StoredButtonState implements ButtonState {
+
+  private final ActiveMessages activeMessages;
+
+  public StoredButtonState(ActiveMessages activeMessages) {
+    this.activeMessages = activeMessages;
+  }
+
+  @Override
+  public String chooserButton(ActiveChooser chooser) {
+    return activeMessages.registerChooser(chooser);
+  }
+
+  @Override
+  public String messageButton(ActiveMessage message, MessageCommand command) {
+    return command.getId();
+  }
+
+  @Override
+  public void messageUpdated(String messageId, ActiveMessage message) {
+    activeMessages.registerMessage(messageId, message);
+  }
+
+  @Override
+  public void messageDeleted(String messageId) {
+    activeMessages.deleteMessage(messageId);
+  }
+
+  @Override
+  public Optional<ButtonClick> resolve(String componentId, String messageId) {
+    Optional<ActiveChooser> chooser = activeMessages.lookupChooser(componentId);
+    if (chooser.isPresent()) {
+      return Optional.of(new ButtonClick.Chooser(chooser.get()));
+    }
+
+    Optional<ActiveMessage> message = activeMessages.lookupMessage(messageId);
+    Optional<MessageCommand> command = MessageCommand.fromId(componentId);
+    if (message.isEmpty() || command.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(new ButtonClick.Message(message.get(), command.get()));
+  }
+}
@@ -0,0 +1,70 @@
+package de.ialistannen.doctor.command;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Defers an interaction if it was not answered within some time.
+ * <p>
+ * Exactly one of the handler and the timer gets to acknowledge the interaction. Handlers call
+ * {@link #claim()} before replying: if it returns true they must reply directly, otherwise the
+ * interaction was already deferred and they need to answer through the interaction hook.
+ */
+public class AutoDefer {
+
+  private final AtomicBoolean acknowledged;
+  private volatile ScheduledFuture<?> timer;
+
+  private AutoDefer() {
+    this.acknowledged = new AtomicBoolean();
+  }
+
+  /**
+   * Claims the right to acknowledge the interaction.
+   *
+   * @return true if the caller should reply directly, false if the interaction was deferred
+   */
+  public boolean claim() {
+    boolean claimed = acknowledged.compareAndSet(false, true);
+    if (timer != null) {
+      timer.cancel(false);
+    }
+    return claimed;
+  }
+
+  /**
+   * @return an instance that never defers
+   */
+  public static AutoDefer never() {
+    return new AutoDefer();
+  }
+
+  /**
+   * Creates an instance that runs the defer action after the delay, unless claimed before.
+   *
+   * @param scheduler the scheduler to use
+   * @param delay the delay after which to defer
+   * @param deferAction the action that defers the interaction
+   * @return the created instance
+   */
+  public static AutoDefer after(
+      ScheduledExecutorService scheduler,
+      Duration delay,
+      Runnable deferAction
+  ) {
+    AutoDefer autoDefer = new AutoDefer();
+    autoDefer.timer = scheduler.schedule(
+        () -> {
+          if (autoDefer.acknowledged.compareAndSet(false, true)) {
+            deferAction.run();
+          }
+        },
+        delay.toMillis(),
+        TimeUnit.MILLISECONDS
+    );
+    return autoDefer;
+  }
+}
@@ -0,0 +1,74 @@
+package de.ialistannen.doctor.command;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.ialistannen.doctor.index.AutocompleteCache;
+import de.ialistannen.doctor.storage.ElementCache;
+import java.awt.Color;
+import java.util.function.Supplier;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+
+public class CacheStatsCommand {
+
+  private final String authorId;
+  private final Supplier<ElementCache.Statistics> statistics;
+  private final Supplier<AutocompleteCache.Statistics> autocompleteStatistics;
+
+  public CacheStatsCommand(
+      String authorId,
+      Supplier<ElementCache.Statistics> statistics,
+      Supplier<AutocompleteCache.Statistics> autocompleteStatistics
+  ) {
+    this.authorId = authorId;
+    this.statistics = statistics;
+    this.autocompleteStatistics = autocompleteStatistics;
+  }
+
+  public void run(MessageReceivedEvent event) {
+    if (!event.getAuthor().getId().equals(authorId)) {
+      return;
+    }
+    ElementCache.Statistics stats = statistics.get();
+    AutocompleteCache.Statistics autocomplete = autocompleteStatistics.get();
+
+    event.getMessage().reply(
+        new MessageCreateBuilder()
+            .setEmbeds(
+                new EmbedBuilder()
+                    .setTitle("Cache statistics")
+                    .setColor(Color.GREEN)
+                    .addField("Heap", format(stats.heap(), stats.heapEntries()), false)
+                    .addField("Headers", format(stats.headers(), stats.headerEntries()), false)
+                    .addField("Off-heap", format(stats.offHeap(), stats.offHeapEntries()), false)
+                    .addField(
+                        "Autocomplete",
+                        format(autocomplete.cache(), autocomplete.entries())
+                            + "\n" + formatMisses(autocomplete),
+                        false
+                    )
+                    .build()
+            )
+            .build()
+    ).queue();
+  }
+
+  private static String format(CacheStats stats, long entries) {
+    return "%d entries, %.1f%% hits (%d hits, %d misses), %d evictions".formatted(
+        entries,
+        stats.hitRate() * 100,
+        stats.hitCount(),
+        stats.missCount(),
+        stats.evictionCount()
+    );
+  }
+
+  private static String formatMisses(AutocompleteCache.Statistics stats) {
+    long misses = stats.refined() + stats.searched();
+    return "%.1f%% of misses refined (%d refined, %d searched)".formatted(
+        misses == 0 ? 0 : stats.refined() * 100.0 / misses,
+        stats.refined(),
+        stats.searched()
+    );
+  }
+}
@@ -0,0 +1,252 @@
+package de.ialistannen.doctor.command;
+
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.doctor.buttons.ButtonClick;
+import de.ialistannen.doctor.buttons.ButtonState;
+import de.ialistannen.doctor.metrics.InteractionType;
+import de.ialistannen.doctor.metrics.Metrics;
+import de.ialistannen.doctor.metrics.Metrics.InteractionTimer;
+import de.ialistannen.doctor.metrics.Stage;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import de.ialistannen.doctor.replay.InteractionRecorder;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveMessage;
+import java.awt.Color;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class CommandListener extends ListenerAdapter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CommandListener.class);
+
+  private final UpdateSlashesCommand updateSlashesCommand;
+  private final CacheStatsCommand cacheStatsCommand;
+  private final DocCommand docCommand;
+  private final ButtonState buttons;
+  private final InteractionExecutor executor;
+  private final InteractionRecorder recorder;
+
+  public CommandListener(
+      DocTorConfig config,
+      DocCommand docCommand,
+      InteractionRecorder recorder
+  ) {
+    this.updateSlashesCommand = new UpdateSlashesCommand(config.authorId());
+    this.cacheStatsCommand = new CacheStatsCommand(
+        config.authorId(),
+        docCommand.engine()::cacheStatistics,
+        docCommand.engine()::autocompleteStatistics
+    );
+    this.docCommand = docCommand;
+    this.buttons = docCommand.engine().buttons();
+    this.executor = new InteractionExecutor(config.execution());
+    this.recorder = recorder;
+  }
+
+  @Override
+  public void onMessageReceived(@NotNull MessageReceivedEvent event) {
+    boolean mentionsMe = event.getMessage().getMentions().isMentioned(event.getJDA().getSelfUser());
+    if (event.getAuthor().isBot() || !mentionsMe) {
+      return;
+    }
+    if (event.getMessage().getContentRaw().endsWith("!update-slashes")) {
+      updateSlashes(event);
+    }
+    if (event.getMessage().getContentRaw().endsWith("!cache-stats")) {
+      cacheStatsCommand.run(event);
+    }
+  }
+
+  @Override
+  public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
+    if (!event.getName().equals("doc")) {
+      return;
+    }
+
+    InteractionTimer timer = Metrics.interaction(shard(event), InteractionType.COMMAND);
+    recorder.command(
+        event.getUser().getId(),
+        Objects.requireNonNull(event.getOption("query")).getAsString()
+    );
+    executor.execute(
+        autoDefer -> {
+          try {
+            docCommand.onCommand(event, autoDefer);
+          } catch (Exception e) {
+            LOGGER.error("Error fetching docs", e);
+            timer.fail();
+            replyError(event, autoDefer, genericErrorMessage());
+          } finally {
+            timer.close();
+          }
+        },
+        () -> Metrics.queueTimed(event.deferReply(), InteractionType.COMMAND, Stage.ACK)
+    );
+  }
+
+  private void updateSlashes(@NotNull MessageReceivedEvent event) {
+    try {
+      updateSlashesCommand.run(event);
+    } catch (ExecutionException | InterruptedException e) {
+      LOGGER.error("Error updating slash commands", e);
+      event.getMessage()
+          .reply(genericErrorMessage())
+          .queue();
+    }
+  }
+
+  @Override
+  public void onButtonInteraction(ButtonInteractionEvent event) {
+    InteractionTimer timer = Metrics.interaction(shard(event), InteractionType.BUTTON);
+    executor.execute(
+        autoDefer -> {
+          try {
+            handleButton(event, autoDefer, timer);
+          } finally {
+            timer.close();
+          }
+        },
+        () -> Metrics.queueTimed(event.deferEdit(), InteractionType.BUTTON, Stage.ACK)
+    );
+  }
+
+  private void handleButton(
+      ButtonInteractionEvent event,
+      AutoDefer autoDefer,
+      InteractionTimer timer
+  ) {
+    Optional<ButtonClick> click = buttons.resolve(event.getComponentId(), event.getMessageId());
+    if (click.isEmpty()) {
+      replyError(event, autoDefer, forgotDataErrorMessage());
+      return;
+    }
+    if (!click.get().ownerId().equals(event.getUser().getId())) {
+      replyError(event, autoDefer, errorMessage("🐠 No touchy the fishy 🐠"));
+      return;
+    }
+    if (click.get() instanceof ButtonClick.Chooser chooser) {
+      recorder.button(
+          event.getUser().getId(),
+          chooser.chooser().qualifiedName(),
+          DescriptionStyle.SHORT,
+          false
+      );
+      runChooser(event, autoDefer, timer, chooser.chooser().qualifiedName());
+      return;
+    }
+
+    ButtonClick.Message clicked = (ButtonClick.Message) click.get();
+    Optional<ActiveMessage> newMessage = clicked.command().update(clicked.message());
+
+    if (newMessage.isEmpty()) {
+      if (autoDefer.claim()) {
+        // Not sure why I need to edit first but w/e
+        event.editMessage(
+            new MessageEditBuilder()
+                .setReplace(true)
+                .setContent("Deleting...")
+                .build()
+        ).queue(interactionHook -> interactionHook.deleteOriginal().queue());
+      } else {
+        event.getHook().deleteOriginal().queue();
+      }
+      buttons.messageDeleted(event.getMessageId());
+      return;
+    }
+
+    recorder.button(
+        event.getUser().getId(),
+        newMessage.get().qualifiedName(),
+        newMessage.get().descriptionStyle(),
+        newMessage.get().tags()
+    );
+    try {
+      docCommand.updateMessage(event, autoDefer, newMessage.get());
+    } catch (Exception e) {
+      LOGGER.error("Error updating message", e);
+      timer.fail();
+      replyError(event, autoDefer, genericErrorMessage());
+    }
+  }
+
+  private void runChooser(
+      ButtonInteractionEvent event,
+      AutoDefer autoDefer,
+      InteractionTimer timer,
+      String qualifiedName
+  ) {
+    try {
+      docCommand.updateButton(event, autoDefer, qualifiedName);
+    } catch (Exception e) {
+      LOGGER.error("Error fetching docs for button", e);
+      timer.fail();
+      replyError(event, autoDefer, genericErrorMessage());
+    }
+  }
+
+  @Override
+  public void onCommandAutoCompleteInteraction(CommandAutoCompleteInteractionEvent event) {
+    if (!event.getName().equals(DocCommand.COMMAND.getName())) {
+      return;
+    }
+    InteractionTimer timer = Metrics.interaction(shard(event), InteractionType.AUTOCOMPLETE);
+    recorder.autocomplete(event.getUser().getId(), event.getFocusedOption().getValue().strip());
+    executor.execute(() -> {
+      try {
+        docCommand.runAutoComplete(event);
+      } catch (RuntimeException e) {
+        timer.fail();
+        throw e;
+      } finally {
+        timer.close();
+      }
+    });
+  }
+
+  private static int shard(GenericEvent event) {
+    return event.getJDA().getShardInfo().getShardId();
+  }
+
+  private void replyError(IReplyCallback event, AutoDefer autoDefer, MessageCreateData error) {
+    if (autoDefer.claim()) {
+      event.reply(error).setEphemeral(true).queue();
+    } else {
+      event.getHook().sendMessage(error).setEphemeral(true).queue();
+    }
+  }
+
+  private MessageCreateData genericErrorMessage() {
+    return errorMessage("An error occurred <:feelsBadMan:1042827948211843154>");
+  }
+
+  private MessageCreateData forgotDataErrorMessage() {
+    return errorMessage("I don't know what you are on about <:feelsBadMan:1042827948211843154>");
+  }
+
+  private MessageCreateData errorMessage(String error) {
+    return new MessageCreateBuilder()
+        .setEmbeds(
+            new EmbedBuilder()
+                .setTitle("Error")
+                .setColor(new Color(255, 99, 71)) // tomato
+                .setDescription(error)
+                .setFooter("There's no sense crying over every mistake")
+                .build()
+        )
+        .build();
+  }
+}
@@ -0,0 +1,265 @@
+package de.ialistannen.doctor.command;
+
+import de.ialistannen.doctor.engine.DocEngine;
+import de.ialistannen.doctor.metrics.InteractionType;
+import de.ialistannen.doctor.metrics.Metrics;
+import de.ialistannen.doctor.metrics.Stage;
+import de.ialistannen.doctor.rendering.Chooser;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.BuildResult;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import de.ialistannen.doctor.rendering.RenderedEmbed;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveMessage;
+import java.awt.Color;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.api.interactions.components.buttons.ButtonStyle;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Answers Discord interactions using the {@link DocEngine}.
+ */
+public class DocCommand {
+
+  public static final CommandData COMMAND = Commands
+      .slash("doc", "Fetches Javadoc for the standard library and some more.")
+      .addOption(
+          OptionType.STRING,
+          "query",
+          "The element you want to look up. E.g. 'String#contains'",
+          true,
+          true
+      );
+
+  private final DocEngine engine;
+
+  public DocCommand(DocEngine engine) {
+    this.engine = engine;
+  }
+
+  public void onCommand(SlashCommandInteractionEvent event, AutoDefer autoDefer)
+      throws SQLException, IOException {
+    String query = Objects.requireNonNull(event.getOption("query")).getAsString();
+
+    Collection<String> qualifiedNames = engine.lookup(query, InteractionType.COMMAND);
+
+    if (qualifiedNames.isEmpty()) {
+      reply(event, autoDefer, MessageCreateData.fromEmbeds(toEmbed(notFoundEmbed(query))), it -> {
+      });
+    } else if (qualifiedNames.size() == 1) {
+      replyFound(event, autoDefer, qualifiedNames);
+    } else {
+      replyTooManyFound(event, autoDefer, qualifiedNames);
+    }
+  }
+
+  private void replyFound(
+      SlashCommandInteractionEvent event,
+      AutoDefer autoDefer,
+      Collection<String> qualifiedNames
+  ) throws SQLException, IOException {
+
+    String qualifiedName = qualifiedNames.iterator().next();
+    BuildResult buildResult = foundEmbed(
+        ActiveMessage.of(event.getUser().getId(), qualifiedName),
+        InteractionType.COMMAND
+    );
+    ActiveMessage message = ActiveMessage.of(event.getUser().getId(), qualifiedName)
+        .withExpandable(buildResult.truncatedDescription());
+
+    reply(
+        event,
+        autoDefer,
+        new MessageCreateBuilder()
+            .addEmbeds(toEmbed(buildResult.embed()))
+            .setComponents(foundMessageActions(message))
+            .build(),
+        it -> engine.buttons().messageUpdated(it.getId(), message)
+    );
+  }
+
+  private RenderedEmbed notFoundEmbed(String query) {
+    return new RenderedEmbed(
+        new Color(255, 99, 71).getRGB(), // tomato
+        "Query result",
+        null,
+        null,
+        null,
+        null,
+        "I could not find any result for '" + StringUtils.truncate(query, 3000) + "'",
+        null,
+        List.of()
+    );
+  }
+
+  private static MessageEmbed toEmbed(RenderedEmbed embed) {
+    EmbedBuilder builder = new EmbedBuilder()
+        .setColor(embed.color())
+        .setTitle(embed.title(), embed.titleUrl())
+        .setDescription(embed.description())
+        .setFooter(embed.footer());
+    if (embed.authorName() != null) {
+      builder.setAuthor(embed.authorName(), embed.authorUrl(), embed.authorIconUrl());
+    }
+    for (RenderedEmbed.Field field : embed.fields()) {
+      builder.addField(field.name(), field.value(), field.inline());
+    }
+    return builder.build();
+  }
+
+  private static List<ActionRow> toComponents(Chooser chooser) {
+    return chooser.rows()
+        .stream()
+        .map(row -> ActionRow.of(
+            row.stream()
+                .map(it -> Button.of(ButtonStyle.PRIMARY, it.id(), it.label())
+                    .withEmoji(Emoji.fromFormatted(it.emoji())))
+                .toList()
+        ))
+        .toList();
+  }
+
+  private BuildResult foundEmbed(ActiveMessage message, InteractionType type)
+      throws SQLException, IOException {
+    return engine.render(message.qualifiedName(), message.descriptionStyle(), message.tags(), type)
+        .orElseGet(() -> new BuildResult(notFoundEmbed(message.qualifiedName()), false));
+  }
+
+  private void replyTooManyFound(
+      SlashCommandInteractionEvent event,
+      AutoDefer autoDefer,
+      Collection<String> matches
+  ) throws SQLException, IOException {
+    Chooser chooser = engine.renderChooser(
+        event.getUser().getId(),
+        matches,
+        InteractionType.COMMAND
+    );
+    MessageCreateData data = new MessageCreateBuilder()
+        .setComponents(toComponents(chooser))
+        .build();
+
+    reply(event, autoDefer, data, it -> {
+    });
+  }
+
+  private void reply(
+      IReplyCallback event,
+      AutoDefer autoDefer,
+      MessageCreateData data,
+      Consumer<Message> onSent
+  ) {
+    if (autoDefer.claim()) {
+      Metrics.queueTimed(
+          event.reply(data),
+          InteractionType.COMMAND,
+          Stage.REPLY,
+          hook -> hook.retrieveOriginal().queue(onSent)
+      );
+    } else {
+      Metrics.queueTimed(
+          event.getHook().editOriginal(MessageEditData.fromCreateData(data)),
+          InteractionType.COMMAND,
+          Stage.REPLY,
+          onSent
+      );
+    }
+  }
+
+  private ActionRow foundMessageActions(ActiveMessage message) {
+    List<MessageCommand> commands = new ArrayList<>();
+    commands.add(MessageCommand.DELETE);
+    commands.add(message.tags() ? MessageCommand.REMOVE_TAGS : MessageCommand.ADD_TAGS);
+    if (message.expandable()) {
+      commands.add(
+          message.descriptionStyle() == DescriptionStyle.SHORT
+              ? MessageCommand.EXPAND
+              : MessageCommand.COLLAPSE
+      );
+    }
+
+    return ActionRow.of(
+        commands.stream()
+            .sorted()
+            .map(it -> Button.of(
+                it.getButtonStyle(),
+                engine.buttons().messageButton(message, it),
+                it.getLabel(),
+                Emoji.fromFormatted(it.getIcon())
+            ))
+            .toList()
+    );
+  }
+
+  public void updateButton(ButtonInteractionEvent event, AutoDefer autoDefer, String qualifiedName)
+      throws SQLException, IOException {
+    updateMessage(event, autoDefer, ActiveMessage.of(event.getUser().getId(), qualifiedName));
+  }
+
+  public void updateMessage(
+      ButtonInteractionEvent event,
+      AutoDefer autoDefer,
+      ActiveMessage message
+  ) throws SQLException, IOException {
+    BuildResult result = foundEmbed(message, InteractionType.BUTTON);
+    message = message.withExpandable(result.truncatedDescription());
+    engine.buttons().messageUpdated(event.getMessageId(), message);
+
+    MessageEditData edit = new MessageEditBuilder()
+        .setEmbeds(toEmbed(result.embed()))
+        .setComponents(foundMessageActions(message))
+        .setReplace(true)
+        .build();
+
+    if (autoDefer.claim()) {
+      Metrics.queueTimed(
+          event.getInteraction().editMessage(edit),
+          InteractionType.BUTTON,
+          Stage.REPLY
+      );
+    } else {
+      Metrics.queueTimed(event.getHook().editOriginal(edit), InteractionType.BUTTON, Stage.REPLY);
+    }
+  }
+
+  public DocEngine engine() {
+    return engine;
+  }
+
+  public void runAutoComplete(CommandAutoCompleteInteractionEvent event) {
+    String query = event.getFocusedOption().getValue().strip();
+    if (query.isEmpty()) {
+      event.replyChoices(List.of()).queue();
+      return;
+    }
+
+    List<String> choices = engine.autocomplete(query, InteractionType.AUTOCOMPLETE);
+
+    Metrics.queueTimed(
+        event.replyChoiceStrings(choices),
+        InteractionType.AUTOCOMPLETE,
+        Stage.REPLY
+    );
+  }
+}
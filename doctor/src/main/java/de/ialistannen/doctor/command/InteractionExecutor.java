@@ -0,0 +1,79 @@
+package de.ialistannen.doctor.command;
+
+import de.ialistannen.doctor.DocTorConfig.ExecutionConfig;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs interaction handlers, either on the calling (JDA event) thread or on virtual threads with a
+ * bounded amount of handlers in flight.
+ */
+public class InteractionExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InteractionExecutor.class);
+
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final ScheduledExecutorService deferScheduler;
+  private final Duration deferAfter;
+
+  public InteractionExecutor(ExecutionConfig config) {
+    this.executor = config.isAsync() ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    this.permits = new Semaphore(config.concurrencyLimit());
+    // Handlers on the event thread are not deferred, as they block every other interaction anyway
+    this.deferScheduler = executor == null ? null : Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+          Thread thread = new Thread(runnable, "interaction-defer");
+          thread.setDaemon(true);
+          return thread;
+        }
+    );
+    this.deferAfter = config.deferAfter();
+  }
+
+  /**
+   * Runs a handler that can be deferred. The handler is only deferred automatically when running
+   * asynchronously.
+   *
+   * @param handler the handler to run
+   * @param deferAction the action deferring the interaction, if the handler takes too long
+   */
+  public void execute(Consumer<AutoDefer> handler, Runnable deferAction) {
+    if (deferScheduler == null) {
+      handler.accept(AutoDefer.never());
+      return;
+    }
+    // Start the timer right away, waiting for a permit counts towards the deadline
+    AutoDefer autoDefer = AutoDefer.after(deferScheduler, deferAfter, deferAction);
+    execute(() -> handler.accept(autoDefer));
+  }
+
+  /**
+   * Runs a handler that can not be deferred.
+   *
+   * @param handler the handler to run
+   */
+  public void execute(Runnable handler) {
+    if (executor == null) {
+      handler.run();
+      return;
+    }
+
+    executor.execute(() -> {
+      permits.acquireUninterruptibly();
+      try {
+        handler.run();
+      } catch (RuntimeException e) {
+        LOGGER.error("Error in interaction handler", e);
+      } finally {
+        permits.release();
+      }
+    });
+  }
+}
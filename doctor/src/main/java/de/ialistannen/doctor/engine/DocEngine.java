@@ -0,0 +1,332 @@
+package de.ialistannen.doctor.engine;
+
+import de.ialistannen.doctor.DocSources;
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.doctor.buttons.ButtonState;
+import de.ialistannen.doctor.index.AutocompleteCache;
+import de.ialistannen.doctor.metrics.InteractionType;
+import de.ialistannen.doctor.metrics.Metrics;
+import de.ialistannen.doctor.metrics.Stage;
+import de.ialistannen.doctor.rendering.Chooser;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.BuildResult;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import de.ialistannen.doctor.rendering.PrerenderedEmbed;
+import de.ialistannen.doctor.rendering.RenderCache;
+import de.ialistannen.doctor.rendering.RenderCache.RenderKey;
+import de.ialistannen.doctor.rendering.TooManyEmbedBuilder;
+import de.ialistannen.doctor.storage.ActiveMessages;
+import de.ialistannen.doctor.storage.ElementCache;
+import de.ialistannen.javadocbpi.model.javadoc.ReferenceConversions;
+import io.prometheus.client.Histogram;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Looks up, completes and renders elements independently of the transport the requests arrive
+ * through. The Discord listener and the HTTP API both call into the same engine, so they share the
+ * loaded sources and caches.
+ */
+public class DocEngine {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DocEngine.class);
+  // Discord's limits for autocomplete choices
+  private static final int MAX_CHOICES = 25;
+  private static final int MAX_CHOICE_NAME_LENGTH = 100;
+
+  private final ButtonState buttons;
+  private volatile Generation generation;
+
+  private DocEngine(DocTorConfig config, ActiveMessages activeMessages)
+      throws SQLException, IOException, InterruptedException {
+    this.buttons = ButtonState.forConfig(
+        config.buttons(),
+        activeMessages,
+        () -> generation.sources.index()
+    );
+    this.generation = Generation.load(config, buttons);
+  }
+
+  /**
+   * Finds the best matching names for a query.
+   *
+   * @param query the query
+   * @param type the type of interaction the lookup is part of
+   * @return the qualified names of all matches in the best rank that had any
+   */
+  public Collection<String> lookup(String query, InteractionType type) {
+    Generation current = retainGeneration();
+    try {
+      List<String> tokens;
+      try (Histogram.Timer ignored = Metrics.stage(type, Stage.TOKENIZE)) {
+        tokens = current.sources.tokenizer().tokenize(query);
+      }
+      Collection<String> qualifiedNames;
+      try (Histogram.Timer ignored = Metrics.stage(type, Stage.SEARCH)) {
+        qualifiedNames = current.sources.index().findBest(tokens);
+      }
+      Metrics.queryResult(qualifiedNames.size());
+
+      return qualifiedNames;
+    } finally {
+      current.release();
+    }
+  }
+
+  /**
+   * Renders the embed for an element, using a prerendered or cached embed if possible.
+   *
+   * @param qualifiedName the qualified name of the element
+   * @param style the description style
+   * @param tags whether to show the tags
+   * @param type the type of interaction the rendering is part of
+   * @return the rendered embed or an empty optional if the element does not exist
+   * @throws SQLException if reading the element fails
+   * @throws IOException if reading the element fails
+   */
+  public Optional<BuildResult> render(
+      String qualifiedName,
+      DescriptionStyle style,
+      boolean tags,
+      InteractionType type
+  ) throws SQLException, IOException {
+    Generation current = retainGeneration();
+    try {
+      return render(current, new RenderKey(qualifiedName, style, tags), type);
+    } finally {
+      current.release();
+    }
+  }
+
+  private Optional<BuildResult> render(Generation current, RenderKey key, InteractionType type)
+      throws SQLException, IOException {
+    Optional<BuildResult> cached = current.renderCache.get(key);
+    if (cached.isPresent()) {
+      return cached;
+    }
+
+    String qualifiedName = key.qualifiedName();
+
+    BuildResult buildResult;
+    Optional<PrerenderedEmbed> prerendered = current.sources.prerendered(qualifiedName);
+    if (prerendered.isPresent()) {
+      try (Histogram.Timer ignored = Metrics.stage(type, Stage.RENDER)) {
+        buildResult = prerendered.get().assemble(key.descriptionStyle(), key.tags());
+      }
+    } else {
+      Optional<DocEmbedBuilder> builder = current.sources.embedBuilder(qualifiedName);
+      if (builder.isEmpty()) {
+        return Optional.empty();
+      }
+      try (Histogram.Timer ignored = Metrics.stage(type, Stage.RENDER)) {
+        buildResult = builder.get()
+            .addColor()
+            .addTitle()
+            .addIcon(current.sources.linkResolver())
+            .addDeclaration()
+            .addTags(key.tags())
+            .addDescription(key.descriptionStyle())
+            .addFooter()
+            .build();
+      }
+    }
+    current.renderCache.put(key, buildResult);
+
+    return Optional.of(buildResult);
+  }
+
+  /**
+   * Renders buttons to choose between multiple matches.
+   *
+   * @param ownerId the id of the user allowed to choose
+   * @param qualifiedNames the matches
+   * @param type the type of interaction the rendering is part of
+   * @return the chooser
+   * @throws SQLException if reading the elements fails
+   * @throws IOException if reading the elements fails
+   */
+  public Chooser renderChooser(
+      String ownerId,
+      Collection<String> qualifiedNames,
+      InteractionType type
+  ) throws SQLException, IOException {
+    Generation current = retainGeneration();
+    try (Histogram.Timer ignored = Metrics.stage(type, Stage.RENDER)) {
+      return current.tooManyEmbedBuilder.buildChooser(ownerId, qualifiedNames);
+    } finally {
+      current.release();
+    }
+  }
+
+  /**
+   * Completes a partial query. The choices follow Discord's limits for autocomplete choices.
+   *
+   * @param query the partial query
+   * @param type the type of interaction the completion is part of
+   * @return the sorted choices
+   */
+  public List<String> autocomplete(String query, InteractionType type) {
+    Generation current = retainGeneration();
+    try {
+      List<String> tokens;
+      try (Histogram.Timer ignored = Metrics.stage(type, Stage.TOKENIZE)) {
+        tokens = current.sources.tokenizer().tokenize(query);
+      }
+      try (Histogram.Timer ignored = Metrics.stage(type, Stage.SEARCH)) {
+        return current.autocompleteCache.complete(tokens)
+            .stream()
+            .map(this::unqualifyMethodParameters)
+            .limit(MAX_CHOICES)
+            .sorted()
+            .map(it -> StringUtils.truncate(it, MAX_CHOICE_NAME_LENGTH))
+            .toList();
+      }
+    } finally {
+      current.release();
+    }
+  }
+
+  private String unqualifyMethodParameters(String fqn) {
+    if (!fqn.contains("(")) {
+      return fqn;
+    }
+    String firstPart = fqn.substring(0, fqn.indexOf('('));
+    String params = fqn.substring(fqn.indexOf('(') + 1)
+        // remove modules from qualifier
+        .replaceAll("([^,]+?/)", "");
+    return firstPart + "(" + ReferenceConversions.unqualifyReference(params) + ")";
+  }
+
+  /**
+   * Loads the sources again and swaps them in once they are ready. Requests that already started
+   * finish against the previous sources, which are closed afterwards.
+   *
+   * @param config the config to load the sources from
+   * @throws SQLException if a database can not be read
+   * @throws IOException if the index snapshot or external javadoc can not be loaded
+   * @throws InterruptedException if interrupted while fetching external javadoc
+   */
+  public synchronized void reload(DocTorConfig config)
+      throws SQLException, IOException, InterruptedException {
+    Generation next = Generation.load(config, buttons);
+    Generation previous = generation;
+    generation = next;
+    previous.release();
+  }
+
+  private Generation retainGeneration() {
+    while (true) {
+      Generation current = generation;
+      if (current.tryRetain()) {
+        return current;
+      }
+      // It was replaced and released concurrently, the field now holds its successor
+    }
+  }
+
+  public ButtonState buttons() {
+    return buttons;
+  }
+
+  public ElementCache.Statistics cacheStatistics() {
+    Generation current = retainGeneration();
+    try {
+      return current.sources.storage().cacheStatistics();
+    } finally {
+      current.release();
+    }
+  }
+
+  public AutocompleteCache.Statistics autocompleteStatistics() {
+    Generation current = retainGeneration();
+    try {
+      return current.autocompleteCache.statistics();
+    } finally {
+      current.release();
+    }
+  }
+
+  public static DocEngine create(DocTorConfig config, ActiveMessages activeMessages)
+      throws SQLException, IOException, InterruptedException {
+    return new DocEngine(config, activeMessages);
+  }
+
+  /**
+   * Everything derived from one version of the sources. Requests retain the generation they start
+   * with, so a reload can swap in a new one while they finish against the old one. The sources are
+   * closed once the generation was replaced and its last request released it.
+   */
+  private static final class Generation {
+
+    private final DocSources sources;
+    private final AutocompleteCache autocompleteCache;
+    private final TooManyEmbedBuilder tooManyEmbedBuilder;
+    private final RenderCache renderCache;
+    // Starts out with the reference held by the DocEngine until the generation is replaced
+    private final AtomicInteger references;
+
+    private Generation(
+        DocSources sources,
+        AutocompleteCache autocompleteCache,
+        TooManyEmbedBuilder tooManyEmbedBuilder,
+        RenderCache renderCache
+    ) {
+      this.sources = sources;
+      this.autocompleteCache = autocompleteCache;
+      this.tooManyEmbedBuilder = tooManyEmbedBuilder;
+      this.renderCache = renderCache;
+      this.references = new AtomicInteger(1);
+    }
+
+    /**
+     * @return true if the generation was retained, false if it was already released for good
+     */
+    private boolean tryRetain() {
+      while (true) {
+        int current = references.get();
+        if (current == 0) {
+          return false;
+        }
+        if (references.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      }
+    }
+
+    private void release() {
+      if (references.decrementAndGet() != 0) {
+        return;
+      }
+      try {
+        sources.close();
+        LOGGER.info("Closed replaced sources");
+      } catch (SQLException e) {
+        LOGGER.warn("Could not close replaced sources", e);
+      }
+    }
+
+    private static Generation load(DocTorConfig config, ButtonState buttons)
+        throws SQLException, IOException, InterruptedException {
+      DocSources sources = DocSources.load(config);
+
+      return new Generation(
+          sources,
+          new AutocompleteCache(
+              sources.index(),
+              sources.tokenizer(),
+              MAX_CHOICES,
+              config.cache()
+          ),
+          new TooManyEmbedBuilder(sources.storage(), buttons),
+          new RenderCache(config.cache().maxRenderedEmbeds())
+      );
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package de.ialistannen.doctor.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.ialistannen.doctor.DocTorConfig.CacheConfig;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches autocomplete results for token lists.
+ * <p>
+ * Users type queries one character at a time, and every keystroke narrows the previous query. If
+ * the index returned few enough names for a query, all of them are cached as candidates. A later
+ * query that refines it, like {@code Strin} after {@code Str} or {@code String#c} after
+ * {@code String}, then filters and ranks those candidates instead of searching the index again.
+ * <p>
+ * Results are ordered by {@link MatchRank}, then by the number of segments after the match and
+ * finally by name. Results searched in the index use the same order, so a query gets the same
+ * result whether it was refined from candidates or not.
+ */
+public class AutocompleteCache {
+
+  private static final int MAX_PARENT_PROBES = 64;
+
+  private final NameIndex index;
+  private final NameTokenizer tokenizer;
+  private final int limit;
+  private final int maxCandidates;
+  private final Cache<List<String>, Entry> cache;
+  private final LongAdder refined;
+  private final LongAdder searched;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param index the index to search
+   * @param tokenizer the tokenizer the index was built with
+   * @param limit the maximum amount of results per query
+   * @param config the cache config
+   */
+  public AutocompleteCache(
+      NameIndex index,
+      NameTokenizer tokenizer,
+      int limit,
+      CacheConfig config
+  ) {
+    this.index = index;
+    this.tokenizer = tokenizer;
+    this.limit = limit;
+    this.maxCandidates = config.maxAutocompleteCandidates();
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(config.maxAutocompleteNames())
+        .weigher((List<String> key, Entry entry) -> entry.weight())
+        .expireAfterAccess(config.autocompleteExpireAfter())
+        .recordStats()
+        .build();
+    this.refined = new LongAdder();
+    this.searched = new LongAdder();
+  }
+
+  /**
+   * Autocompletes a query.
+   *
+   * @param tokens the query tokens
+   * @return at most {@code limit} qualified names, best matches first
+   */
+  public List<String> complete(List<String> tokens) {
+    List<String> key = List.copyOf(tokens);
+    Entry cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached.result();
+    }
+
+    Entry entry = refine(key).orElseGet(() -> search(key));
+    cache.put(key, entry);
+
+    return entry.result();
+  }
+
+  private Optional<Entry> refine(List<String> tokens) {
+    List<String> parent = tokens;
+    for (int i = 0; i < MAX_PARENT_PROBES; i++) {
+      parent = parentOf(parent);
+      if (parent.isEmpty()) {
+        return Optional.empty();
+      }
+      // Probing through the map view keeps the hit rate about the queries users actually sent
+      Entry entry = cache.asMap().get(parent);
+      if (entry != null && entry.candidates() != null) {
+        refined.increment();
+        return Optional.of(rank(tokens, entry.candidates()));
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Entry search(List<String> tokens) {
+    searched.increment();
+
+    Optional<List<String>> candidates = index.candidates(tokens, maxCandidates);
+    if (candidates.isPresent()) {
+      return rank(tokens, candidates.get());
+    }
+    return new Entry(index.autocompleteRanked(tokens, limit), null);
+  }
+
+  /**
+   * Returns the query that matches a superset of the names the given query matches, by dropping
+   * the last character.
+   */
+  private static List<String> parentOf(List<String> tokens) {
+    String last = tokens.get(tokens.size() - 1);
+    if (last.length() <= 1) {
+      return tokens.subList(0, tokens.size() - 1);
+    }
+    List<String> parent = new ArrayList<>(tokens);
+    parent.set(parent.size() - 1, last.substring(0, last.length() - 1));
+    return parent;
+  }
+
+  private Entry rank(List<String> tokens, List<String> candidates) {
+    List<List<Match>> ranks = new ArrayList<>();
+    for (int i = 0; i < MatchRank.values().length; i++) {
+      ranks.add(new ArrayList<>());
+    }
+
+    List<String> matching = new ArrayList<>();
+    for (String name : candidates) {
+      int[] depths = depths(tokens, tokenizer.tokenize(name));
+      boolean matched = false;
+      for (int rank = 0; rank < depths.length; rank++) {
+        if (depths[rank] != Integer.MAX_VALUE) {
+          ranks.get(rank).add(new Match(name, depths[rank]));
+          matched = true;
+        }
+      }
+      if (matched) {
+        matching.add(name);
+      }
+    }
+
+    Set<String> result = new LinkedHashSet<>();
+    for (List<Match> matches : ranks) {
+      matches.sort(Comparator.comparingInt(Match::depth).thenComparing(Match::name));
+      for (Match match : matches.subList(0, Math.min(limit, matches.size()))) {
+        if (result.size() >= limit) {
+          break;
+        }
+        result.add(match.name());
+      }
+    }
+
+    return new Entry(List.copyOf(result), List.copyOf(matching));
+  }
+
+  /**
+   * Computes for every {@link MatchRank} how many name segments follow the closest match of the
+   * query, mirroring the breadth first search of the index.
+   *
+   * @return the depth per rank ordinal, {@link Integer#MAX_VALUE} if the rank does not match
+   */
+  private static int[] depths(List<String> query, List<String> name) {
+    int[] depths = new int[MatchRank.values().length];
+    Arrays.fill(depths, Integer.MAX_VALUE);
+
+    for (int start = 0; start + query.size() <= name.size(); start++) {
+      int mask = MatchRank.ALL;
+      for (int i = 0; i < query.size() && mask != 0; i++) {
+        String segment = name.get(start + i);
+        String token = query.get(i);
+        boolean last = i == query.size() - 1;
+
+        boolean matches = last
+            ? segment.regionMatches(true, 0, token, 0, token.length())
+            : segment.equalsIgnoreCase(token);
+        mask = matches
+            ? mask & MatchRank.mask(segment.startsWith(token), segment.length() == token.length())
+            : 0;
+      }
+
+      int depth = name.size() - start - query.size();
+      for (MatchRank rank : MatchRank.values()) {
+        if (rank.isIn(mask)) {
+          depths[rank.ordinal()] = Math.min(depths[rank.ordinal()], depth);
+        }
+      }
+    }
+
+    return depths;
+  }
+
+  public Statistics statistics() {
+    return new Statistics(
+        cache.stats(),
+        cache.estimatedSize(),
+        refined.sum(),
+        searched.sum()
+    );
+  }
+
+  /**
+   * @param result the ranked result
+   * @param candidates all names matching the query, or null if there were too many
+   */
+  private record Entry(List<String> result, List<String> candidates) {
+
+    int weight() {
+      return result.size() + (candidates == null ? 0 : candidates.size());
+    }
+  }
+
+  private record Match(String name, int depth) {
+
+  }
+
+  /**
+   * @param cache the statistics of exact lookups
+   * @param entries the amount of cached queries
+   * @param refined the amount of misses answered by refining the candidates of a shorter query
+   * @param searched the amount of misses answered by searching the index
+   */
+  public record Statistics(CacheStats cache, long entries, long refined, long searched) {
+
+  }
+}
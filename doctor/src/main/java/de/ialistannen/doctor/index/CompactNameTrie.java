@@ -0,0 +1,721 @@
+package de.ialistannen.doctor.index;
+
+import de.ialistannen.javadocbpi.query.CaseSensitivity;
+import de.ialistannen.javadocbpi.query.MatchingStrategy;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * A read-only {@link NameIndex} with the same semantics as the {@link NameTrie}, stored in a
+ * single (usually off-heap or memory-mapped) buffer.
+ * <p>
+ * Every distinct token is stored once and referenced by id, so common segments like {@code java}
+ * or {@code String} are shared between all nodes using them. Nodes are laid out in breadth-first
+ * order as primitive arrays, which keeps the children of a node contiguous and sorted by token.
+ * Names are sorted and front coded in blocks, sharing the common prefix with their predecessor.
+ */
+public class CompactNameTrie implements NameIndex {
+
+  private static final int HEADER_INTS = 6;
+  private static final int NAME_BLOCK_SIZE = 16;
+
+  private final ByteBuffer buffer;
+  private final int nameCount;
+  private final IntBuffer tokenOffsets;
+  private final IntBuffer nodeTokens;
+  private final IntBuffer childStarts;
+  private final IntBuffer terminalStarts;
+  private final IntBuffer foldedChildren;
+  private final IntBuffer terminals;
+  private final IntBuffer nameBlockOffsets;
+  private final CharBuffer tokenChars;
+  private final ByteBuffer nameBytes;
+
+  /**
+   * Wraps an existing buffer created by {@link #of(NameTrie)}.
+   *
+   * @param buffer the buffer to wrap, starting at position 0
+   */
+  CompactNameTrie(ByteBuffer buffer) {
+    this.buffer = buffer;
+
+    IntBuffer header = buffer.slice(0, HEADER_INTS * Integer.BYTES).asIntBuffer();
+    int tokenCount = header.get(0);
+    int nodeCount = header.get(1);
+    int terminalCount = header.get(2);
+    this.nameCount = header.get(3);
+    int tokenCharCount = header.get(4);
+    int nameByteCount = header.get(5);
+
+    var sections = new Object() {
+      int position = HEADER_INTS * Integer.BYTES;
+
+      IntBuffer ints(int count) {
+        IntBuffer result = buffer.slice(position, count * Integer.BYTES).asIntBuffer();
+        position += count * Integer.BYTES;
+        return result;
+      }
+    };
+
+    this.tokenOffsets = sections.ints(tokenCount + 1);
+    this.nodeTokens = sections.ints(nodeCount);
+    this.childStarts = sections.ints(nodeCount + 1);
+    this.terminalStarts = sections.ints(nodeCount + 1);
+    this.foldedChildren = sections.ints(Math.max(0, nodeCount - 1));
+    this.terminals = sections.ints(terminalCount);
+    this.nameBlockOffsets = sections.ints(blockCount(nameCount));
+    this.tokenChars = buffer.slice(sections.position, tokenCharCount * Character.BYTES)
+        .asCharBuffer();
+    this.nameBytes = buffer.slice(
+        sections.position + tokenCharCount * Character.BYTES,
+        nameByteCount
+    );
+  }
+
+  @Override
+  public Collection<String> find(
+      MatchingStrategy strategy,
+      CaseSensitivity caseSensitivity,
+      List<String> tokens
+  ) {
+    Set<String> result = new LinkedHashSet<>();
+    for (int node : walk(strategy, caseSensitivity, tokens)) {
+      for (int i = terminalStarts.get(node); i < terminalStarts.get(node + 1); i++) {
+        result.add(name(terminals.get(i)));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Collection<String> autocomplete(
+      MatchingStrategy strategy,
+      CaseSensitivity caseSensitivity,
+      List<String> tokens,
+      int limit
+  ) {
+    Set<String> seen = new HashSet<>();
+    List<String> result = new ArrayList<>();
+    Deque<Integer> workList = new ArrayDeque<>(walk(strategy, caseSensitivity, tokens));
+
+    while (!workList.isEmpty() && result.size() < limit) {
+      int node = workList.removeFirst();
+      for (int i = terminalStarts.get(node); i < terminalStarts.get(node + 1); i++) {
+        String name = name(terminals.get(i));
+        if (seen.add(name)) {
+          result.add(name);
+        }
+        if (result.size() >= limit) {
+          break;
+        }
+      }
+      for (int child = childStarts.get(node); child < childStarts.get(node + 1); child++) {
+        workList.addLast(child);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public Collection<String> findBest(List<String> tokens) {
+    List<RankedNode> matches = rankedWalk(tokens);
+
+    for (MatchRank rank : MatchRank.values()) {
+      Set<String> result = new LinkedHashSet<>();
+      for (RankedNode match : matches) {
+        if (!rank.isIn(match.mask())) {
+          continue;
+        }
+        int node = match.node();
+        for (int i = terminalStarts.get(node); i < terminalStarts.get(node + 1); i++) {
+          result.add(name(terminals.get(i)));
+        }
+      }
+      if (!result.isEmpty()) {
+        return result;
+      }
+    }
+
+    return List.of();
+  }
+
+  @Override
+  public List<String> autocompleteRanked(List<String> tokens, int limit) {
+    RankedMatches result = new RankedMatches(limit);
+    List<RankedNode> level = rankedWalk(tokens);
+
+    while (!level.isEmpty() && !result.isComplete()) {
+      List<RankedNode> nextLevel = new ArrayList<>();
+      for (RankedNode current : level) {
+        int mask = result.open(current.mask());
+        if (mask == 0) {
+          continue;
+        }
+        int node = current.node();
+        for (int i = terminalStarts.get(node); i < terminalStarts.get(node + 1); i++) {
+          result.add(mask, name(terminals.get(i)));
+        }
+        for (int child = childStarts.get(node); child < childStarts.get(node + 1); child++) {
+          nextLevel.add(new RankedNode(child, mask));
+        }
+      }
+      result.endLevel();
+      level = nextLevel;
+    }
+
+    return result.merged();
+  }
+
+  @Override
+  public Optional<List<String>> candidates(List<String> tokens, int max) {
+    // Names are only decoded once it is clear there are not too many
+    Set<Integer> ids = new LinkedHashSet<>();
+    Deque<Integer> workList = new ArrayDeque<>();
+    for (RankedNode match : rankedWalk(tokens)) {
+      workList.add(match.node());
+    }
+
+    while (!workList.isEmpty()) {
+      int node = workList.removeFirst();
+      for (int i = terminalStarts.get(node); i < terminalStarts.get(node + 1); i++) {
+        ids.add(terminals.get(i));
+      }
+      if (ids.size() > max) {
+        return Optional.empty();
+      }
+      for (int child = childStarts.get(node); child < childStarts.get(node + 1); child++) {
+        workList.addLast(child);
+      }
+    }
+
+    return Optional.of(ids.stream().map(this::name).toList());
+  }
+
+  /**
+   * Walks the trie ignoring case, which visits a superset of the nodes any {@link MatchRank}
+   * reaches, and tracks the ranks every reached node matches under.
+   */
+  private List<RankedNode> rankedWalk(List<String> tokens) {
+    if (tokens.isEmpty()) {
+      return List.of();
+    }
+    List<RankedNode> current = List.of(new RankedNode(0, MatchRank.ALL));
+    List<Integer> children = new ArrayList<>();
+
+    for (int i = 0; i < tokens.size() && !current.isEmpty(); i++) {
+      String token = tokens.get(i);
+      boolean prefix = i == tokens.size() - 1;
+
+      List<RankedNode> next = new ArrayList<>();
+      for (RankedNode node : current) {
+        children.clear();
+        matchingChildren(node.node(), token, prefix, true, children);
+        for (int child : children) {
+          int mask = MatchRank.mask(
+              compareToken(child, token, true, false) == 0,
+              tokenLength(child) == token.length()
+          );
+          next.add(new RankedNode(child, node.mask() & mask));
+        }
+      }
+      current = next;
+    }
+
+    return current;
+  }
+
+  private int tokenLength(int node) {
+    int tokenId = nodeTokens.get(node);
+    return tokenOffsets.get(tokenId + 1) - tokenOffsets.get(tokenId);
+  }
+
+  private List<Integer> walk(
+      MatchingStrategy strategy,
+      CaseSensitivity caseSensitivity,
+      List<String> tokens
+  ) {
+    if (tokens.isEmpty()) {
+      return List.of();
+    }
+    boolean ignoreCase = caseSensitivity == CaseSensitivity.IGNORE_CASE;
+    List<Integer> current = List.of(0);
+
+    for (int i = 0; i < tokens.size() && !current.isEmpty(); i++) {
+      boolean prefix = i == tokens.size() - 1 && strategy != MatchingStrategy.EXACT;
+
+      List<Integer> next = new ArrayList<>();
+      for (int node : current) {
+        matchingChildren(node, tokens.get(i), prefix, ignoreCase, next);
+      }
+      current = next;
+    }
+
+    return current;
+  }
+
+  private void matchingChildren(
+      int node,
+      String token,
+      boolean prefix,
+      boolean ignoreCase,
+      List<Integer> result
+  ) {
+    int start = childStarts.get(node);
+    int end = childStarts.get(node + 1);
+
+    // Find the first child that is not smaller
+    int low = start;
+    int high = end;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (compareToken(childAt(middle, ignoreCase), token, prefix, ignoreCase) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    for (int i = low; i < end; i++) {
+      int child = childAt(i, ignoreCase);
+      if (compareToken(child, token, prefix, ignoreCase) != 0) {
+        break;
+      }
+      result.add(child);
+    }
+  }
+
+  private int childAt(int position, boolean ignoreCase) {
+    // Nodes are in token order, the folded permutation skips the root
+    return ignoreCase ? foldedChildren.get(position - 1) : position;
+  }
+
+  /**
+   * Compares the token of a node to the query token like {@link String#compareTo(String)} or
+   * {@link String#CASE_INSENSITIVE_ORDER}. If {@code prefix} is set, every node token starting with
+   * the query compares equal.
+   */
+  private int compareToken(int node, String query, boolean prefix, boolean ignoreCase) {
+    int tokenId = nodeTokens.get(node);
+    int offset = tokenOffsets.get(tokenId);
+    int length = tokenOffsets.get(tokenId + 1) - offset;
+
+    int shared = Math.min(length, query.length());
+    for (int i = 0; i < shared; i++) {
+      char a = tokenChars.get(offset + i);
+      char b = query.charAt(i);
+      if (a == b) {
+        continue;
+      }
+      if (!ignoreCase) {
+        return a - b;
+      }
+      a = Character.toUpperCase(a);
+      b = Character.toUpperCase(b);
+      if (a != b) {
+        a = Character.toLowerCase(a);
+        b = Character.toLowerCase(b);
+        if (a != b) {
+          return a - b;
+        }
+      }
+    }
+
+    if (prefix && length >= query.length()) {
+      return 0;
+    }
+    return length - query.length();
+  }
+
+  @Override
+  public OptionalInt idOf(String qualifiedName) {
+    // Ids are assigned in lexicographic order
+    int low = 0;
+    int high = nameCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = name(middle).compareTo(qualifiedName);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return OptionalInt.of(middle);
+      }
+    }
+    return OptionalInt.empty();
+  }
+
+  /**
+   * Returns the name with the given id. Ids are assigned in lexicographic order.
+   *
+   * @param id the id of the name
+   * @return the qualified name
+   */
+  @Override
+  public String name(int id) {
+    int position = nameBlockOffsets.get(id / NAME_BLOCK_SIZE);
+    byte[] current = new byte[64];
+    int currentLength = 0;
+
+    for (int i = 0; i <= id % NAME_BLOCK_SIZE; i++) {
+      int shared = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte read = nameBytes.get(position++);
+        shared |= (read & 0x7F) << shift;
+        if (read >= 0) {
+          break;
+        }
+      }
+      int suffixLength = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte read = nameBytes.get(position++);
+        suffixLength |= (read & 0x7F) << shift;
+        if (read >= 0) {
+          break;
+        }
+      }
+
+      if (shared + suffixLength > current.length) {
+        current = Arrays.copyOf(current, Math.max(current.length * 2, shared + suffixLength));
+      }
+      nameBytes.get(position, current, shared, suffixLength);
+      position += suffixLength;
+      currentLength = shared + suffixLength;
+    }
+
+    return new String(current, 0, currentLength, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public int size() {
+    return nameCount;
+  }
+
+  @Override
+  public MemoryReport memoryReport() {
+    Map<String, Long> sections = new LinkedHashMap<>();
+    sections.put("tokens", (long) tokenOffsets.capacity() * 4 + tokenChars.capacity() * 2L);
+    sections.put(
+        "nodes",
+        (nodeTokens.capacity() + childStarts.capacity() + foldedChildren.capacity()) * 4L
+    );
+    sections.put("terminals", (terminalStarts.capacity() + terminals.capacity()) * 4L);
+    sections.put("names", nameBlockOffsets.capacity() * 4L + nameBytes.capacity());
+
+    return new MemoryReport("Compact trie", buffer.isDirect(), sections);
+  }
+
+  /**
+   * Returns a read-only view of the underlying buffer, e.g. for persisting it.
+   *
+   * @return the underlying buffer
+   */
+  ByteBuffer buffer() {
+    return buffer.asReadOnlyBuffer();
+  }
+
+  /**
+   * Converts a {@link NameTrie} to its compact, off-heap form.
+   *
+   * @param trie the trie to convert
+   * @return the compact trie
+   */
+  public static CompactNameTrie of(NameTrie trie) {
+    return of(trie.tokenizer(), trie.names());
+  }
+
+  /**
+   * Builds a compact trie directly from a list of names, without creating a {@link NameTrie}
+   * first. The trie structure is assembled in primitive arrays, so this needs a fraction of the
+   * memory the object trie would.
+   *
+   * @param tokenizer the tokenizer to split names with
+   * @param names the names to index, in any order. Duplicates are only indexed once.
+   * @return the compact trie
+   */
+  public static CompactNameTrie of(NameTokenizer tokenizer, Collection<String> names) {
+    // Ids are the rank of a name in lexicographic order
+    String[] sortedNames = names.stream().sorted().distinct().toArray(String[]::new);
+
+    Map<String, Integer> tokenIds = new HashMap<>();
+    List<String> tokens = new ArrayList<>(List.of(""));
+    tokenIds.put("", 0);
+    int[][] nameTokens = new int[sortedNames.length][];
+    for (int i = 0; i < sortedNames.length; i++) {
+      nameTokens[i] = tokenizer.tokenize(sortedNames[i]).stream()
+          .mapToInt(token -> tokenIds.computeIfAbsent(token, it -> {
+            tokens.add(it);
+            return tokens.size() - 1;
+          }))
+          .toArray();
+    }
+
+    // Token ids follow token order, which orders the children of every node
+    Integer[] sortedTokens = new Integer[tokens.size()];
+    Arrays.setAll(sortedTokens, i -> i);
+    Arrays.sort(sortedTokens, Comparator.comparing(tokens::get));
+    int[] tokenRanks = new int[tokens.size()];
+    for (int i = 0; i < sortedTokens.length; i++) {
+      tokenRanks[sortedTokens[i]] = i;
+    }
+
+    // Insert every suffix, creating nodes in insertion order first
+    EdgeTable edges = new EdgeTable();
+    int[] insertedTokens = new int[1024];
+    int insertedCount = 1;
+    long[] insertedTerminals = new long[1024];
+    int insertedTerminalCount = 0;
+    for (int name = 0; name < nameTokens.length; name++) {
+      int[] current = nameTokens[name];
+      for (int start = 0; start < current.length; start++) {
+        int node = 0;
+        for (int i = start; i < current.length; i++) {
+          int token = tokenRanks[current[i]];
+          int child = edges.get(node, token);
+          if (child < 0) {
+            child = insertedCount++;
+            if (child == insertedTokens.length) {
+              insertedTokens = Arrays.copyOf(insertedTokens, child * 2);
+            }
+            insertedTokens[child] = token;
+            edges.put(node, token, child);
+          }
+          node = child;
+        }
+        if (insertedTerminalCount == insertedTerminals.length) {
+          insertedTerminals = Arrays.copyOf(insertedTerminals, insertedTerminalCount * 2);
+        }
+        insertedTerminals[insertedTerminalCount++] = (long) node << 32 | name;
+      }
+    }
+
+    // Renumber nodes breadth-first, visiting children in token order
+    long[] sortedEdges = edges.keys();
+    Arrays.sort(sortedEdges);
+    int[] edgeStarts = new int[insertedCount + 1];
+    for (long edge : sortedEdges) {
+      edgeStarts[(int) (edge >>> 32) + 1]++;
+    }
+    Arrays.parallelPrefix(edgeStarts, Integer::sum);
+
+    int[] order = new int[insertedCount];
+    int nodeCount = 1;
+    for (int i = 0; i < nodeCount; i++) {
+      int node = order[i];
+      for (int edge = edgeStarts[node]; edge < edgeStarts[node + 1]; edge++) {
+        order[nodeCount++] = edges.get(node, (int) sortedEdges[edge]);
+      }
+    }
+
+    // Suffixes of the same name can end in the same node
+    long[] terminalPairs = Arrays.stream(insertedTerminals, 0, insertedTerminalCount)
+        .sorted()
+        .distinct()
+        .toArray();
+    int[] terminalPairStarts = new int[insertedCount + 1];
+    for (long pair : terminalPairs) {
+      terminalPairStarts[(int) (pair >>> 32) + 1]++;
+    }
+    Arrays.parallelPrefix(terminalPairStarts, Integer::sum);
+
+    int[] tokenOffsets = new int[tokens.size() + 1];
+    StringBuilder tokenChars = new StringBuilder();
+    for (int i = 0; i < sortedTokens.length; i++) {
+      tokenOffsets[i] = tokenChars.length();
+      tokenChars.append(tokens.get(sortedTokens[i]));
+    }
+    tokenOffsets[tokens.size()] = tokenChars.length();
+
+    int[] nodeTokens = new int[nodeCount];
+    int[] childStarts = new int[nodeCount + 1];
+    int[] terminalStarts = new int[nodeCount + 1];
+    int[] foldedChildren = new int[Math.max(0, nodeCount - 1)];
+    int[] terminals = new int[terminalPairs.length];
+    int nextChild = 1;
+    int nextTerminal = 0;
+
+    for (int i = 0; i < nodeCount; i++) {
+      int node = order[i];
+      nodeTokens[i] = insertedTokens[node];
+
+      childStarts[i] = nextChild;
+      int childCount = edgeStarts[node + 1] - edgeStarts[node];
+      Integer[] folded = new Integer[childCount];
+      Arrays.setAll(folded, it -> it);
+      int firstEdge = edgeStarts[node];
+      Arrays.sort(
+          folded,
+          Comparator.comparing(
+              it -> tokens.get(sortedTokens[(int) sortedEdges[firstEdge + it]]),
+              String.CASE_INSENSITIVE_ORDER
+          )
+      );
+      for (int j = 0; j < folded.length; j++) {
+        foldedChildren[nextChild - 1 + j] = nextChild + folded[j];
+      }
+      nextChild += childCount;
+
+      terminalStarts[i] = nextTerminal;
+      for (int j = terminalPairStarts[node]; j < terminalPairStarts[node + 1]; j++) {
+        terminals[nextTerminal++] = (int) terminalPairs[j];
+      }
+    }
+    childStarts[nodeCount] = nextChild;
+    terminalStarts[nodeCount] = nextTerminal;
+
+    ByteArrayOutputStream nameBytes = new ByteArrayOutputStream();
+    int[] nameBlockOffsets = new int[blockCount(sortedNames.length)];
+    byte[] previous = new byte[0];
+    for (int i = 0; i < sortedNames.length; i++) {
+      byte[] current = sortedNames[i].getBytes(StandardCharsets.UTF_8);
+      int shared = 0;
+      if (i % NAME_BLOCK_SIZE == 0) {
+        nameBlockOffsets[i / NAME_BLOCK_SIZE] = nameBytes.size();
+      } else {
+        shared = Arrays.mismatch(previous, current);
+        shared = shared < 0 ? current.length : shared;
+      }
+      writeVarInt(nameBytes, shared);
+      writeVarInt(nameBytes, current.length - shared);
+      nameBytes.write(current, shared, current.length - shared);
+      previous = current;
+    }
+
+    int intCount = HEADER_INTS + tokenOffsets.length + nodeTokens.length + childStarts.length
+        + terminalStarts.length + foldedChildren.length + terminals.length
+        + nameBlockOffsets.length;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(
+        intCount * Integer.BYTES + tokenChars.length() * Character.BYTES + nameBytes.size()
+    );
+
+    buffer.putInt(tokens.size())
+        .putInt(nodeCount)
+        .putInt(terminals.length)
+        .putInt(sortedNames.length)
+        .putInt(tokenChars.length())
+        .putInt(nameBytes.size());
+    IntBuffer ints = buffer.asIntBuffer();
+    ints.put(tokenOffsets)
+        .put(nodeTokens)
+        .put(childStarts)
+        .put(terminalStarts)
+        .put(foldedChildren)
+        .put(terminals)
+        .put(nameBlockOffsets);
+    buffer.position(buffer.position() + ints.position() * Integer.BYTES);
+    buffer.asCharBuffer().put(tokenChars.toString());
+    buffer.position(buffer.position() + tokenChars.length() * Character.BYTES);
+    buffer.put(nameBytes.toByteArray());
+
+    return new CompactNameTrie(buffer.clear());
+  }
+
+  /**
+   * An open addressing map from a (parent node, token) edge to the child node, so building does
+   * not need an object per node.
+   */
+  private static class EdgeTable {
+
+    private static final long EMPTY = -1;
+
+    private long[] keys;
+    private int[] children;
+    private int size;
+
+    EdgeTable() {
+      this.keys = new long[1024];
+      this.children = new int[1024];
+      Arrays.fill(keys, EMPTY);
+    }
+
+    int get(int node, int token) {
+      long key = (long) node << 32 | token;
+      int mask = keys.length - 1;
+      for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+        if (keys[slot] == key) {
+          return children[slot];
+        }
+        if (keys[slot] == EMPTY) {
+          return -1;
+        }
+      }
+    }
+
+    void put(int node, int token, int child) {
+      if ((size + 1) * 2 > keys.length) {
+        grow();
+      }
+      long key = (long) node << 32 | token;
+      int mask = keys.length - 1;
+      int slot = slot(key, mask);
+      while (keys[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      children[slot] = child;
+      size++;
+    }
+
+    /**
+     * Returns all edges as {@code node << 32 | token}, so sorting them groups them by node and
+     * orders them by token.
+     */
+    long[] keys() {
+      return Arrays.stream(keys).filter(it -> it != EMPTY).toArray();
+    }
+
+    private void grow() {
+      long[] oldKeys = keys;
+      int[] oldChildren = children;
+      keys = new long[oldKeys.length * 2];
+      children = new int[oldKeys.length * 2];
+      Arrays.fill(keys, EMPTY);
+      size = 0;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != EMPTY) {
+          put((int) (oldKeys[i] >>> 32), (int) oldKeys[i], oldChildren[i]);
+        }
+      }
+    }
+
+    private static int slot(long key, int mask) {
+      key *= 0x9E3779B97F4A7C15L;
+      return (int) (key ^ (key >>> 32)) & mask;
+    }
+  }
+
+  private record RankedNode(int node, int mask) {
+
+  }
+
+  private static int blockCount(int nameCount) {
+    return (nameCount + NAME_BLOCK_SIZE - 1) / NAME_BLOCK_SIZE;
+  }
+
+  private static void writeVarInt(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+}
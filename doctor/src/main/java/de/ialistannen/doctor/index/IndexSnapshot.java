@@ -0,0 +1,130 @@
+package de.ialistannen.doctor.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists a {@link CompactNameTrie} and {@link SourceRoutingIndex} to a binary file, tagged with
+ * the fingerprint of the sources they were built from.
+ * <p>
+ * Layout: magic, version, fingerprint, the sizes of the routing index and the trie, a checksum of
+ * both and then the buffers of the routing index and the compact trie. As both work directly on
+ * their buffers, loading a snapshot just maps the file into memory. The checksum is verified on
+ * load, so a file torn by a crash is rebuilt instead of failing at query time.
+ */
+public class IndexSnapshot {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IndexSnapshot.class);
+  private static final int MAGIC = 0x44_54_52_49; // DTRI
+  private static final int VERSION = 5;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES + 4 * Long.BYTES;
+
+  private final Path file;
+
+  public IndexSnapshot(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Maps the snapshot if it exists and was built from sources with the given fingerprint.
+   *
+   * @param fingerprint the fingerprint of the current sources
+   * @return the contents or an empty optional if the snapshot is missing or outdated
+   */
+  public Optional<Contents> read(SourceFingerprint fingerprint) {
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+
+    // The mapping stays valid after the channel is closed
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        LOGGER.info("Index snapshot has an unknown format, rebuilding");
+        return Optional.empty();
+      }
+      if (buffer.getLong() != fingerprint.value()) {
+        LOGGER.info("Source databases changed since the last snapshot, rebuilding");
+        return Optional.empty();
+      }
+
+      int routingSize = Math.toIntExact(buffer.getLong());
+      int trieSize = Math.toIntExact(buffer.getLong());
+      long checksum = buffer.getLong();
+      if ((long) HEADER_SIZE + routingSize + trieSize != buffer.limit()) {
+        LOGGER.warn("Index snapshot is truncated, rebuilding");
+        return Optional.empty();
+      }
+      CRC32C crc = new CRC32C();
+      crc.update(buffer.slice(HEADER_SIZE, routingSize + trieSize));
+      if (crc.getValue() != checksum) {
+        LOGGER.warn("Index snapshot is corrupted, rebuilding");
+        return Optional.empty();
+      }
+
+      int trieStart = HEADER_SIZE + routingSize;
+      CompactNameTrie trie = new CompactNameTrie(buffer.slice(trieStart, trieSize));
+      return Optional.of(new Contents(
+          trie,
+          new SourceRoutingIndex(buffer.slice(HEADER_SIZE, routingSize), trie)
+      ));
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Could not read index snapshot, rebuilding", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Atomically replaces the snapshot with the given contents.
+   *
+   * @param fingerprint the fingerprint of the sources the contents were built from
+   * @param contents the contents to write
+   * @throws IOException if writing fails
+   */
+  public void write(SourceFingerprint fingerprint, Contents contents) throws IOException {
+    Path target = file.toAbsolutePath();
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+    CRC32C crc = new CRC32C();
+    crc.update(contents.routing().buffer());
+    crc.update(contents.trie().buffer());
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+        .putInt(MAGIC)
+        .putInt(VERSION)
+        .putLong(fingerprint.value())
+        .putLong(contents.routing().byteSize())
+        .putLong(contents.trie().buffer().remaining())
+        .putLong(crc.getValue())
+        .flip();
+
+    try (FileChannel channel = FileChannel.open(
+        temp,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+    )) {
+      ByteBuffer[] buffers = {header, contents.routing().buffer(), contents.trie().buffer()};
+      while (buffers[2].hasRemaining()) {
+        channel.write(buffers);
+      }
+      // The move must not become visible before the contents are durable
+      channel.force(true);
+    }
+
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  public record Contents(CompactNameTrie trie, SourceRoutingIndex routing) {
+
+  }
+}
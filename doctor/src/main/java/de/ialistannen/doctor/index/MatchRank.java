@@ -0,0 +1,47 @@
+package de.ialistannen.doctor.index;
+
+/**
+ * The ways a query can match a name, from best to worst. All query tokens but the last always
+ * have to match a name segment completely, the rank describes how the last one matched and
+ * whether case was considered.
+ */
+public enum MatchRank {
+  EXACT_CONSIDER_CASE,
+  EXACT_IGNORE_CASE,
+  PREFIX_CONSIDER_CASE,
+  PREFIX_IGNORE_CASE;
+
+  /**
+   * The mask of all ranks.
+   */
+  static final int ALL = (1 << values().length) - 1;
+
+  /**
+   * Returns the ranks a single segment matches under.
+   *
+   * @param caseMatches whether the segment starts with the query token, considering case
+   * @param complete whether the segment has the same length as the query token
+   * @return a bit mask of rank ordinals
+   */
+  static int mask(boolean caseMatches, boolean complete) {
+    int mask = bit(PREFIX_IGNORE_CASE);
+    if (complete) {
+      mask |= bit(EXACT_IGNORE_CASE);
+    }
+    if (caseMatches) {
+      mask |= bit(PREFIX_CONSIDER_CASE);
+    }
+    if (caseMatches && complete) {
+      mask |= bit(EXACT_CONSIDER_CASE);
+    }
+    return mask;
+  }
+
+  boolean isIn(int mask) {
+    return (mask & bit(this)) != 0;
+  }
+
+  private static int bit(MatchRank rank) {
+    return 1 << rank.ordinal();
+  }
+}
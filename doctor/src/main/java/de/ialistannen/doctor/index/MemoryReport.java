@@ -0,0 +1,33 @@
+package de.ialistannen.doctor.index;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The (estimated) memory used by the sections of an index.
+ *
+ * @param name the name of the index
+ * @param offHeap whether the sections live outside the java heap
+ * @param sections the byte size of each section
+ */
+public record MemoryReport(String name, boolean offHeap, Map<String, Long> sections) {
+
+  public long totalBytes() {
+    return sections.values().stream().mapToLong(Long::longValue).sum();
+  }
+
+  @Override
+  public String toString() {
+    String details = sections.entrySet().stream()
+        .map(it -> it.getKey() + "=" + formatBytes(it.getValue()))
+        .collect(Collectors.joining(", "));
+
+    return "%s: %s %s (%s)".formatted(
+        name, formatBytes(totalBytes()), offHeap ? "off-heap" : "on-heap", details
+    );
+  }
+
+  private static String formatBytes(long bytes) {
+    return "%.1f MiB".formatted(bytes / 1024.0 / 1024.0);
+  }
+}
@@ -0,0 +1,102 @@
+package de.ialistannen.doctor.index;
+
+import de.ialistannen.javadocbpi.query.CaseSensitivity;
+import de.ialistannen.javadocbpi.query.MatchingStrategy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * An index of qualified names that can be searched with {@link NameTokenizer} tokens.
+ */
+public interface NameIndex {
+
+  /**
+   * Finds all names whose last segments match the query.
+   *
+   * @param strategy how to match the last token
+   * @param caseSensitivity whether to consider case
+   * @param tokens the query tokens
+   * @return all matching qualified names
+   */
+  Collection<String> find(
+      MatchingStrategy strategy,
+      CaseSensitivity caseSensitivity,
+      List<String> tokens
+  );
+
+  /**
+   * Finds names where the query matches some segments and the name might continue after them.
+   *
+   * @param strategy how to match the last token
+   * @param caseSensitivity whether to consider case
+   * @param tokens the query tokens
+   * @param limit the maximum amount of results
+   * @return at most {@code limit} matching qualified names
+   */
+  Collection<String> autocomplete(
+      MatchingStrategy strategy,
+      CaseSensitivity caseSensitivity,
+      List<String> tokens,
+      int limit
+  );
+
+  /**
+   * Finds all names matching the query under the best {@link MatchRank} that has any results.
+   * The index is only traversed once for all ranks.
+   *
+   * @param tokens the query tokens
+   * @return all qualified names matching under the best rank
+   */
+  Collection<String> findBest(List<String> tokens);
+
+  /**
+   * Autocompletes the query under all {@link MatchRank}s in a single traversal. The result is the
+   * same as calling {@link #autocomplete} for every rank in order until {@code limit} names are
+   * found. Within a rank, names are ordered by the number of segments after the match and then by
+   * name.
+   *
+   * @param tokens the query tokens
+   * @param limit the maximum amount of results
+   * @return at most {@code limit} qualified names, best ranks first
+   */
+  List<String> autocompleteRanked(List<String> tokens, int limit);
+
+  /**
+   * Returns every name matching the query under any {@link MatchRank}, including names that
+   * continue after the matched segments.
+   *
+   * @param tokens the query tokens
+   * @param max the maximum amount of names to collect
+   * @return all matching qualified names or an empty optional if there are more than {@code max}
+   */
+  Optional<List<String>> candidates(List<String> tokens, int max);
+
+  /**
+   * Looks up the id of a name. Ids are dense and fixed for an index, but differ between indices
+   * built from different sources.
+   *
+   * @param qualifiedName the qualified name
+   * @return the id or an empty optional if the name is not indexed
+   */
+  OptionalInt idOf(String qualifiedName);
+
+  /**
+   * Returns the name with the given id.
+   *
+   * @param id the id of the name, between zero and {@link #size()}
+   * @return the qualified name
+   */
+  String name(int id);
+
+  /**
+   * @return the amount of indexed names
+   */
+  int size();
+
+  /**
+   * @return a breakdown of the memory used by this index
+   */
+  MemoryReport memoryReport();
+}
@@ -0,0 +1,73 @@
+package de.ialistannen.doctor.index;
+
+import de.ialistannen.javadocbpi.model.javadoc.ReferenceConversions;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits qualified names and user queries into the tokens the {@link NameTrie} works on.
+ * <p>
+ * Modules, packages, types and members all become separate tokens. Method parameters stay
+ * attached to the method name, but are unqualified so {@code contains(CharSequence)} matches
+ * {@code contains(java.lang.CharSequence)}. Parameter lists are only closed if the input closed
+ * them, so a half typed query like {@code contains(Char} stays a prefix of the full name.
+ */
+public class NameTokenizer {
+
+  public List<String> tokenize(String input) {
+    String head = input.strip();
+    String parameters = null;
+
+    int parenIndex = head.indexOf('(');
+    if (parenIndex >= 0) {
+      parameters = head.substring(parenIndex);
+      head = head.substring(0, parenIndex);
+    }
+
+    List<String> tokens = new ArrayList<>();
+    int start = 0;
+    for (int i = 0; i < head.length(); i++) {
+      char c = head.charAt(i);
+      if (c == '.' || c == '#' || c == '/') {
+        if (i > start) {
+          tokens.add(head.substring(start, i));
+        }
+        start = i + 1;
+      }
+    }
+
+    String last = head.substring(start);
+    if (parameters != null) {
+      last += unqualifyParameters(parameters);
+    }
+    if (!last.isEmpty()) {
+      tokens.add(last);
+    }
+
+    return tokens;
+  }
+
+  private static String unqualifyParameters(String parameters) {
+    String inner = parameters.substring(1);
+    boolean closed = inner.endsWith(")");
+    if (closed) {
+      inner = inner.substring(0, inner.length() - 1);
+    }
+    String close = closed ? ")" : "";
+    if (inner.isBlank()) {
+      return "(" + close;
+    }
+    // A trailing separator starts the next, not yet typed parameter
+    String separator = "";
+    if (inner.strip().endsWith(",")) {
+      separator = ",";
+      inner = inner.substring(0, inner.lastIndexOf(','));
+    }
+    inner = inner
+        // remove modules from qualifier
+        .replaceAll("([^,]+?/)", "");
+
+    String unqualified = ReferenceConversions.unqualifyReference(inner).replace(" ", "");
+    return "(" + unqualified + separator + close;
+  }
+}
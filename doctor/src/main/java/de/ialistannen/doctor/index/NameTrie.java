@@ -0,0 +1,430 @@
+package de.ialistannen.doctor.index;
+
+import de.ialistannen.javadocbpi.query.CaseSensitivity;
+import de.ialistannen.javadocbpi.query.MatchingStrategy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A trie over the tokens of qualified names.
+ * <p>
+ * Every suffix of a name's token list is inserted, so a query can start at any segment: {@code
+ * String#contains} finds {@code java.base/java.lang.String#contains(java.lang.CharSequence)}. All
+ * query tokens but the last have to match a name segment completely, the last one is compared
+ * according to the {@link MatchingStrategy}.
+ */
+public class NameTrie implements NameIndex {
+
+  private static final int[] NO_NAMES = new int[0];
+
+  private final NameTokenizer tokenizer;
+  private final List<String> names;
+  private final Node root;
+
+  NameTrie(NameTokenizer tokenizer, List<String> names, Node root) {
+    this.tokenizer = tokenizer;
+    this.names = names;
+    this.root = root;
+  }
+
+  @Override
+  public Collection<String> find(
+      MatchingStrategy strategy,
+      CaseSensitivity caseSensitivity,
+      List<String> tokens
+  ) {
+    Set<String> result = new LinkedHashSet<>();
+    for (Node node : walk(strategy, caseSensitivity, tokens)) {
+      for (int id : node.terminals) {
+        result.add(names.get(id));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Collection<String> autocomplete(
+      MatchingStrategy strategy,
+      CaseSensitivity caseSensitivity,
+      List<String> tokens,
+      int limit
+  ) {
+    Set<String> result = new LinkedHashSet<>();
+    Deque<Node> workList = new ArrayDeque<>(walk(strategy, caseSensitivity, tokens));
+
+    while (!workList.isEmpty() && result.size() < limit) {
+      Node node = workList.removeFirst();
+      for (int id : node.terminals) {
+        result.add(names.get(id));
+        if (result.size() >= limit) {
+          break;
+        }
+      }
+      workList.addAll(node.children.values());
+    }
+
+    return result;
+  }
+
+  @Override
+  public Collection<String> findBest(List<String> tokens) {
+    List<RankedNode> matches = rankedWalk(tokens);
+
+    for (MatchRank rank : MatchRank.values()) {
+      Set<String> result = new LinkedHashSet<>();
+      for (RankedNode match : matches) {
+        if (rank.isIn(match.mask())) {
+          for (int id : match.node().terminals) {
+            result.add(names.get(id));
+          }
+        }
+      }
+      if (!result.isEmpty()) {
+        return result;
+      }
+    }
+
+    return List.of();
+  }
+
+  @Override
+  public List<String> autocompleteRanked(List<String> tokens, int limit) {
+    RankedMatches result = new RankedMatches(limit);
+    List<RankedNode> level = rankedWalk(tokens);
+
+    while (!level.isEmpty() && !result.isComplete()) {
+      List<RankedNode> nextLevel = new ArrayList<>();
+      for (RankedNode current : level) {
+        int mask = result.open(current.mask());
+        if (mask == 0) {
+          continue;
+        }
+        for (int id : current.node().terminals) {
+          result.add(mask, names.get(id));
+        }
+        for (Node child : current.node().children.values()) {
+          nextLevel.add(new RankedNode(child, mask));
+        }
+      }
+      result.endLevel();
+      level = nextLevel;
+    }
+
+    return result.merged();
+  }
+
+  @Override
+  public Optional<List<String>> candidates(List<String> tokens, int max) {
+    Set<String> result = new LinkedHashSet<>();
+    Deque<Node> workList = new ArrayDeque<>();
+    for (RankedNode match : rankedWalk(tokens)) {
+      workList.add(match.node());
+    }
+
+    while (!workList.isEmpty()) {
+      Node node = workList.removeFirst();
+      for (int id : node.terminals) {
+        result.add(names.get(id));
+      }
+      if (result.size() > max) {
+        return Optional.empty();
+      }
+      workList.addAll(node.children.values());
+    }
+
+    return Optional.of(List.copyOf(result));
+  }
+
+  /**
+   * Walks the trie ignoring case, which visits a superset of the nodes any {@link MatchRank}
+   * reaches, and tracks the ranks every reached node matches under.
+   */
+  private List<RankedNode> rankedWalk(List<String> tokens) {
+    if (tokens.isEmpty()) {
+      return List.of();
+    }
+    List<RankedNode> current = List.of(new RankedNode(root, MatchRank.ALL));
+
+    for (int i = 0; i < tokens.size() && !current.isEmpty(); i++) {
+      String token = tokens.get(i);
+      MatchingStrategy strategy = i == tokens.size() - 1
+          ? MatchingStrategy.PREFIX
+          : MatchingStrategy.EXACT;
+
+      List<RankedNode> next = new ArrayList<>();
+      List<Node> children = new ArrayList<>();
+      for (RankedNode node : current) {
+        children.clear();
+        node.node().matchingChildren(token, strategy, CaseSensitivity.IGNORE_CASE, children);
+        for (Node child : children) {
+          int mask = MatchRank.mask(
+              child.token.startsWith(token),
+              child.token.length() == token.length()
+          );
+          next.add(new RankedNode(child, node.mask() & mask));
+        }
+      }
+      current = next;
+    }
+
+    return current;
+  }
+
+  private List<Node> walk(
+      MatchingStrategy strategy,
+      CaseSensitivity caseSensitivity,
+      List<String> tokens
+  ) {
+    if (tokens.isEmpty()) {
+      return List.of();
+    }
+    List<Node> current = List.of(root);
+
+    for (int i = 0; i < tokens.size() && !current.isEmpty(); i++) {
+      boolean last = i == tokens.size() - 1;
+      MatchingStrategy tokenStrategy = last ? strategy : MatchingStrategy.EXACT;
+
+      List<Node> next = new ArrayList<>();
+      for (Node node : current) {
+        node.matchingChildren(tokens.get(i), tokenStrategy, caseSensitivity, next);
+      }
+      current = next;
+    }
+
+    return current;
+  }
+
+  @Override
+  public OptionalInt idOf(String qualifiedName) {
+    List<String> tokens = tokenizer.tokenize(qualifiedName);
+    for (Node node : walk(MatchingStrategy.EXACT, CaseSensitivity.CONSIDER_CASE, tokens)) {
+      for (int id : node.terminals) {
+        if (names.get(id).equals(qualifiedName)) {
+          return OptionalInt.of(id);
+        }
+      }
+    }
+    return OptionalInt.empty();
+  }
+
+  @Override
+  public String name(int id) {
+    return names.get(id);
+  }
+
+  List<String> names() {
+    return names;
+  }
+
+  NameTokenizer tokenizer() {
+    return tokenizer;
+  }
+
+  /**
+   * Builds a new trie over the names in another index.
+   *
+   * @param tokenizer the tokenizer to use
+   * @param index the index to copy
+   * @return the built trie
+   */
+  public static NameTrie copyOf(NameTokenizer tokenizer, CompactNameTrie index) {
+    Builder builder = builder(tokenizer);
+    for (int i = 0; i < index.size(); i++) {
+      builder.add(index.name(i));
+    }
+    return builder.build();
+  }
+
+  Node root() {
+    return root;
+  }
+
+  @Override
+  public int size() {
+    return names.size();
+  }
+
+  @Override
+  public MemoryReport memoryReport() {
+    // Rough estimates for a 64 bit JVM with compressed oops
+    long nodes = 0;
+    long childEntries = 0;
+    long terminals = 0;
+    long tokens = 0;
+    Deque<Node> workList = new ArrayDeque<>(List.of(root));
+    while (!workList.isEmpty()) {
+      Node node = workList.removeFirst();
+      nodes += 24 + 2 * 48;
+      childEntries += node.children.size() * (40L + 40 + 24 + 16 + 4);
+      terminals += 16 + 4L * node.terminals.length;
+      tokens += 24 + 16 + node.token.length();
+      workList.addAll(node.children.values());
+    }
+    long nameBytes = names.stream().mapToLong(it -> 24 + 16 + it.length()).sum();
+
+    return new MemoryReport(
+        "Object trie",
+        false,
+        Map.of(
+            "nodes", nodes,
+            "children", childEntries,
+            "terminals", terminals,
+            "tokens", tokens,
+            "names", nameBytes
+        )
+    );
+  }
+
+  public static Builder builder(NameTokenizer tokenizer) {
+    return new Builder(tokenizer);
+  }
+
+  public static class Builder {
+
+    private final NameTokenizer tokenizer;
+    private final List<String> names;
+    private final Node root;
+
+    private Builder(NameTokenizer tokenizer) {
+      this.tokenizer = tokenizer;
+      this.names = new ArrayList<>();
+      this.root = new Node("");
+    }
+
+    public Builder add(String qualifiedName) {
+      int id = names.size();
+      names.add(qualifiedName);
+
+      List<String> tokens = tokenizer.tokenize(qualifiedName);
+      for (int start = 0; start < tokens.size(); start++) {
+        Node node = root;
+        for (String token : tokens.subList(start, tokens.size())) {
+          node = node.child(token);
+        }
+        node.addTerminal(id);
+      }
+
+      return this;
+    }
+
+    /**
+     * Builds the trie. Names are numbered by their rank in lexicographic order like in the
+     * {@link CompactNameTrie}, so ids do not depend on the order names were added in.
+     *
+     * @return the built trie
+     */
+    public NameTrie build() {
+      Integer[] sortedIds = new Integer[names.size()];
+      Arrays.setAll(sortedIds, i -> i);
+      Arrays.sort(sortedIds, Comparator.comparing(names::get));
+
+      // Duplicates share the id of their first occurrence
+      List<String> sortedNames = new ArrayList<>();
+      int[] idMapping = new int[names.size()];
+      for (Integer id : sortedIds) {
+        String name = names.get(id);
+        if (sortedNames.isEmpty() || !sortedNames.get(sortedNames.size() - 1).equals(name)) {
+          sortedNames.add(name);
+        }
+        idMapping[id] = sortedNames.size() - 1;
+      }
+
+      Deque<Node> workList = new ArrayDeque<>(List.of(root));
+      while (!workList.isEmpty()) {
+        Node node = workList.removeFirst();
+        node.terminals = Arrays.stream(node.terminals)
+            .map(id -> idMapping[id])
+            .sorted()
+            .distinct()
+            .toArray();
+        workList.addAll(node.children.values());
+      }
+
+      return new NameTrie(tokenizer, List.copyOf(sortedNames), root);
+    }
+  }
+
+  private record RankedNode(Node node, int mask) {
+
+  }
+
+  static final class Node {
+
+    final String token;
+    final TreeMap<String, Node> children;
+    final TreeMap<String, List<Node>> childrenIgnoringCase;
+    int[] terminals;
+
+    Node(String token) {
+      this.token = token;
+      this.children = new TreeMap<>();
+      this.childrenIgnoringCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      this.terminals = NO_NAMES;
+    }
+
+    Node child(String token) {
+      Node child = children.get(token);
+      if (child == null) {
+        child = new Node(token);
+        addChild(child);
+      }
+      return child;
+    }
+
+    void addChild(Node child) {
+      children.put(child.token, child);
+      childrenIgnoringCase.computeIfAbsent(child.token, ignored -> new ArrayList<>(1)).add(child);
+    }
+
+    void addTerminal(int id) {
+      // Suffixes of the same name can end in the same node
+      if (terminals.length > 0 && terminals[terminals.length - 1] == id) {
+        return;
+      }
+      terminals = Arrays.copyOf(terminals, terminals.length + 1);
+      terminals[terminals.length - 1] = id;
+    }
+
+    void matchingChildren(
+        String token,
+        MatchingStrategy strategy,
+        CaseSensitivity caseSensitivity,
+        List<Node> result
+    ) {
+      boolean considerCase = caseSensitivity == CaseSensitivity.CONSIDER_CASE;
+
+      if (strategy == MatchingStrategy.EXACT) {
+        if (considerCase) {
+          Node child = children.get(token);
+          if (child != null) {
+            result.add(child);
+          }
+        } else {
+          result.addAll(childrenIgnoringCase.getOrDefault(token, List.of()));
+        }
+        return;
+      }
+
+      String upperBound = token + Character.MAX_VALUE;
+      if (considerCase) {
+        result.addAll(children.subMap(token, true, upperBound, false).values());
+      } else {
+        for (Map.Entry<String, List<Node>> entry : childrenIgnoringCase
+            .subMap(token, true, upperBound, false).entrySet()) {
+          result.addAll(entry.getValue());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package de.ialistannen.doctor.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects autocomplete results for all {@link MatchRank}s at once, fed level by level by a breadth
+ * first search. Every rank keeps at most {@code limit} names, so the merged result is the same as
+ * searching rank after rank.
+ * <p>
+ * Within a rank, names are ordered by the level they were found on and then by name, the same
+ * order the {@link AutocompleteCache} ranks cached candidates in.
+ */
+class RankedMatches {
+
+  private final int limit;
+  private final List<Set<String>> buckets;
+  private final List<List<String>> levelNames;
+  private int openRanks;
+
+  RankedMatches(int limit) {
+    this.limit = limit;
+    this.buckets = new ArrayList<>();
+    this.levelNames = new ArrayList<>();
+    for (int i = 0; i < MatchRank.values().length; i++) {
+      buckets.add(new LinkedHashSet<>());
+      levelNames.add(new ArrayList<>());
+    }
+    this.openRanks = MatchRank.ALL;
+  }
+
+  /**
+   * Restricts a rank mask to the ranks that can still take names.
+   *
+   * @param mask the rank mask of a node
+   * @return the ranks in the mask that are not full yet
+   */
+  int open(int mask) {
+    return mask & openRanks;
+  }
+
+  /**
+   * Adds a name found on the current level to all ranks in the mask that are not full yet.
+   *
+   * @param mask the rank mask
+   * @param name the name to add
+   */
+  void add(int mask, String name) {
+    for (MatchRank rank : MatchRank.values()) {
+      if (rank.isIn(open(mask))) {
+        levelNames.get(rank.ordinal()).add(name);
+      }
+    }
+  }
+
+  /**
+   * Ends the current level, taking its names in name order until the ranks are full.
+   */
+  void endLevel() {
+    for (MatchRank rank : MatchRank.values()) {
+      List<String> names = levelNames.get(rank.ordinal());
+      if (names.isEmpty()) {
+        continue;
+      }
+      names.sort(null);
+      Set<String> bucket = buckets.get(rank.ordinal());
+      for (String name : names) {
+        if (bucket.size() >= limit) {
+          break;
+        }
+        bucket.add(name);
+      }
+      if (bucket.size() >= limit) {
+        openRanks &= ~(1 << rank.ordinal());
+      }
+      names.clear();
+    }
+  }
+
+  /**
+   * @return true if the best rank is full, so no later name can change the merged result
+   */
+  boolean isComplete() {
+    return !MatchRank.EXACT_CONSIDER_CASE.isIn(openRanks);
+  }
+
+  /**
+   * @return at most {@code limit} names, best ranks first
+   */
+  List<String> merged() {
+    Set<String> result = new LinkedHashSet<>();
+    for (Set<String> bucket : buckets) {
+      for (String name : bucket) {
+        if (result.size() >= limit) {
+          return List.copyOf(result);
+        }
+        result.add(name);
+      }
+    }
+    return List.copyOf(result);
+  }
+}
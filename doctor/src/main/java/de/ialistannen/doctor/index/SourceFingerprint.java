@@ -0,0 +1,115 @@
+package de.ialistannen.doctor.index;
+
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * A checksum over the contents of source databases.
+ *
+ * @param value the checksum
+ */
+public record SourceFingerprint(long value) {
+
+  private static final long CHUNK_SIZE = 256 * 1024 * 1024;
+
+  /**
+   * Checksums the database of a single source. This reads the whole file, so callers needing it
+   * more than once should keep the result.
+   *
+   * @param source the source
+   * @return the fingerprint of the source database
+   * @throws IOException if the database can not be read
+   */
+  public static SourceFingerprint of(SourceConfig source) throws IOException {
+    CRC32C crc = new CRC32C();
+    Path path = Path.of(source.database()).toAbsolutePath();
+    crc.update(path.toString().getBytes(StandardCharsets.UTF_8));
+    crc.update(longBytes(checksum(path)));
+
+    return new SourceFingerprint(crc.getValue());
+  }
+
+  /**
+   * Checksums the databases of all sources.
+   *
+   * @param sources the sources, in config order
+   * @return the {@link #combine(List) combined} fingerprint of all source databases
+   * @throws IOException if a database can not be read
+   */
+  public static SourceFingerprint of(List<SourceConfig> sources) throws IOException {
+    List<SourceFingerprint> fingerprints = new ArrayList<>();
+    for (SourceConfig source : sources) {
+      fingerprints.add(of(source));
+    }
+    return combine(fingerprints);
+  }
+
+  /**
+   * Combines the fingerprints of single sources into one that changes if any of them changes.
+   *
+   * @param fingerprints the fingerprints of the sources, in config order
+   * @return the combined fingerprint
+   */
+  public static SourceFingerprint combine(List<SourceFingerprint> fingerprints) {
+    CRC32C combined = new CRC32C();
+    for (SourceFingerprint fingerprint : fingerprints) {
+      combined.update(longBytes(fingerprint.value()));
+    }
+
+    return new SourceFingerprint(combined.getValue());
+  }
+
+  /**
+   * Derives a fingerprint that additionally changes with the given values, e.g. for data derived
+   * from the sources that also depends on settings.
+   *
+   * @param values the values to fold in, compared by their string form
+   * @return the derived fingerprint
+   */
+  public SourceFingerprint with(List<?> values) {
+    CRC32C combined = new CRC32C();
+    combined.update(longBytes(value));
+    for (Object part : values) {
+      byte[] bytes = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+      // The length keeps ["ab", "c"] and ["a", "bc"] apart
+      combined.update(longBytes(bytes.length));
+      combined.update(bytes);
+    }
+
+    return new SourceFingerprint(combined.getValue());
+  }
+
+  private static long checksum(Path file) throws IOException {
+    CRC32C crc = new CRC32C();
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      for (long offset = 0; offset < size; offset += CHUNK_SIZE) {
+        MappedByteBuffer chunk = channel.map(
+            MapMode.READ_ONLY, offset, Math.min(CHUNK_SIZE, size - offset)
+        );
+        crc.update(chunk);
+      }
+      crc.update(longBytes(size));
+    }
+
+    return crc.getValue();
+  }
+
+  private static byte[] longBytes(long value) {
+    byte[] bytes = new byte[Long.BYTES];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) (value >>> (8 * i));
+    }
+    return bytes;
+  }
+}
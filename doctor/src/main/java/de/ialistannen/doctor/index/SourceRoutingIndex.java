@@ -0,0 +1,163 @@
+package de.ialistannen.doctor.index;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Maps qualified names to the index of the source that owns them.
+ * <p>
+ * This is an open addressing hash table over 64 bit name hashes, stored in a single buffer like the
+ * {@link CompactNameTrie}. Every slot also stores the id of its name in the compact trie, so a hash
+ * hit is verified against the actual name instead of trusting the hash. If multiple sources define
+ * the same name, the first one added wins, so adding sources in config order gives config order
+ * priority.
+ */
+public class SourceRoutingIndex {
+
+  private static final long EMPTY = 0;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final CompactNameTrie names;
+  private final LongBuffer keys;
+  private final IntBuffer nameIds;
+  private final ByteBuffer sources;
+  private final int mask;
+  private final int size;
+
+  /**
+   * Wraps an existing buffer created by a {@link Builder}.
+   *
+   * @param buffer the buffer to wrap, starting at position 0
+   * @param names the trie the name ids in the buffer refer to
+   */
+  SourceRoutingIndex(ByteBuffer buffer, CompactNameTrie names) {
+    this.buffer = buffer;
+    this.names = names;
+    int capacity = buffer.getInt(0);
+    this.size = buffer.getInt(Integer.BYTES);
+    this.mask = capacity - 1;
+    this.keys = buffer.slice(HEADER_SIZE, capacity * Long.BYTES).asLongBuffer();
+    this.nameIds = buffer.slice(HEADER_SIZE + capacity * Long.BYTES, capacity * Integer.BYTES)
+        .asIntBuffer();
+    this.sources = buffer.slice(HEADER_SIZE + capacity * (Long.BYTES + Integer.BYTES), capacity);
+  }
+
+  /**
+   * Looks up the source of a name.
+   *
+   * @param qualifiedName the name to look up
+   * @return the index of the source or an empty optional if no source contains the name
+   */
+  public OptionalInt sourceOf(String qualifiedName) {
+    long hash = hash(qualifiedName);
+    for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+      long key = keys.get(slot);
+      if (key == EMPTY) {
+        return OptionalInt.empty();
+      }
+      if (key == hash && names.name(nameIds.get(slot)).equals(qualifiedName)) {
+        return OptionalInt.of(sources.get(slot));
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  ByteBuffer buffer() {
+    return buffer.asReadOnlyBuffer();
+  }
+
+  public long byteSize() {
+    return buffer.capacity();
+  }
+
+  /**
+   * Hashes a qualified name. The result is never zero, so tables can use zero for empty slots.
+   *
+   * @param name the name to hash
+   * @return the hash
+   */
+  public static long hash(CharSequence name) {
+    // FNV-1a followed by a splitmix finalizer
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < name.length(); i++) {
+      hash ^= name.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+    hash = hash ^ (hash >>> 31);
+
+    return hash == EMPTY ? 1 : hash;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+
+    private final Map<String, Integer> sources;
+
+    private Builder() {
+      this.sources = new HashMap<>();
+    }
+
+    /**
+     * Adds a name if no earlier source defined it yet.
+     *
+     * @param qualifiedName the qualified name
+     * @param source the index of the source in config order
+     * @return this builder
+     */
+    public Builder add(String qualifiedName, int source) {
+      if (source > Byte.MAX_VALUE) {
+        throw new IllegalArgumentException("At most 128 sources are supported, got " + source);
+      }
+      sources.putIfAbsent(qualifiedName, source);
+      return this;
+    }
+
+    /**
+     * Builds the index against the trie containing the added names.
+     *
+     * @param names the compact trie built from the same names
+     * @return the built index
+     */
+    public SourceRoutingIndex build(CompactNameTrie names) {
+      // Keep the load factor at or below 0.5
+      int capacity = Integer.highestOneBit(Math.max(1, sources.size()) * 2 - 1) << 1;
+      ByteBuffer buffer = ByteBuffer.allocateDirect(
+          HEADER_SIZE + capacity * (Long.BYTES + Integer.BYTES + 1)
+      );
+      buffer.putInt(0, capacity);
+      buffer.putInt(Integer.BYTES, sources.size());
+      SourceRoutingIndex index = new SourceRoutingIndex(buffer, names);
+
+      for (int id = 0; id < names.size(); id++) {
+        String name = names.name(id);
+        Integer source = sources.get(name);
+        if (source == null) {
+          continue;
+        }
+        long hash = hash(name);
+        int slot = (int) hash & index.mask;
+        while (index.keys.get(slot) != EMPTY) {
+          slot = (slot + 1) & index.mask;
+        }
+        index.keys.put(slot, hash);
+        index.nameIds.put(slot, id);
+        index.sources.put(slot, source.byteValue());
+      }
+
+      return index;
+    }
+  }
+}
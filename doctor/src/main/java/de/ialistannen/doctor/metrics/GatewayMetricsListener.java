@@ -0,0 +1,22 @@
+package de.ialistannen.doctor.metrics;
+
+import net.dv8tion.jda.api.events.GatewayPingEvent;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Records the event throughput and heartbeat latency of every shard it is registered on.
+ */
+public class GatewayMetricsListener implements EventListener {
+
+  @Override
+  public void onEvent(@NotNull GenericEvent event) {
+    int shard = event.getJDA().getShardInfo().getShardId();
+    Metrics.gatewayEvent(shard);
+
+    if (event instanceof GatewayPingEvent pingEvent) {
+      Metrics.gatewayPing(shard, pingEvent.getNewPing());
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package de.ialistannen.doctor.metrics;
+
+import java.util.Locale;
+
+/**
+ * The kinds of interactions metrics are recorded for.
+ */
+public enum InteractionType {
+  COMMAND,
+  BUTTON,
+  AUTOCOMPLETE,
+  API;
+
+  private final String label;
+
+  InteractionType() {
+    this.label = name().toLowerCase(Locale.ROOT);
+  }
+
+  String label() {
+    return label;
+  }
+}
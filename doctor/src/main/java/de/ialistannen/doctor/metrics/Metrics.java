@@ -0,0 +1,253 @@
+package de.ialistannen.doctor.metrics;
+
+import de.ialistannen.doctor.DocTorConfig.MetricsConfig;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+import io.prometheus.client.exporter.HTTPServer;
+import io.prometheus.client.hotspot.DefaultExports;
+import java.io.IOException;
+import java.util.function.Consumer;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency histograms and counters for the interaction path, registered in the default Prometheus
+ * registry.
+ * <p>
+ * Interactions are timed as a whole and split into {@link Stage stages}. Storage reads and decoding
+ * are shared by all interaction types and labelled by source instead. Interactions and gateway
+ * events are labelled with the shard that received them.
+ */
+public final class Metrics {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Metrics.class);
+
+  private static final double[] BUCKETS = {
+      0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5
+  };
+
+  private static final Histogram INTERACTIONS = Histogram.build()
+      .name("doctor_interaction_duration_seconds")
+      .help("Time from receiving an interaction until its handler finished.")
+      .labelNames("shard", "type", "outcome")
+      .buckets(BUCKETS)
+      .register();
+  private static final Histogram STAGES = Histogram.build()
+      .name("doctor_stage_duration_seconds")
+      .help("Time spent in a single stage of handling an interaction.")
+      .labelNames("type", "stage")
+      .buckets(BUCKETS)
+      .register();
+  private static final Histogram STORAGE_READS = Histogram.build()
+      .name("doctor_storage_read_duration_seconds")
+      .help("Time spent reading serialized elements from a source database.")
+      .labelNames("source")
+      .buckets(BUCKETS)
+      .register();
+  private static final Histogram DECODES = Histogram.build()
+      .name("doctor_storage_decode_duration_seconds")
+      .help("Time spent deserializing a single element.")
+      .labelNames("source", "kind")
+      .buckets(BUCKETS)
+      .register();
+  private static final Histogram CONNECTION_WAITS = Histogram.build()
+      .name("doctor_storage_connection_wait_seconds")
+      .help("Time spent waiting for a free connection to a source database.")
+      .labelNames("source")
+      .buckets(BUCKETS)
+      .register();
+  private static final Counter REQUEST_FAILURES = Counter.build()
+      .name("doctor_request_failures_total")
+      .help("Discord requests of an interaction stage that failed.")
+      .labelNames("type", "stage")
+      .register();
+  private static final Counter QUERY_RESULTS = Counter.build()
+      .name("doctor_query_results_total")
+      .help("Slash command queries by the amount of names they matched.")
+      .labelNames("result")
+      .register();
+
+  private static final Counter GATEWAY_EVENTS = Counter.build()
+      .name("doctor_gateway_events_total")
+      .help("Events received from the Discord gateway.")
+      .labelNames("shard")
+      .register();
+  private static final Gauge GATEWAY_PING = Gauge.build()
+      .name("doctor_gateway_ping_seconds")
+      .help("Last measured heartbeat round trip time to the Discord gateway.")
+      .labelNames("shard")
+      .register();
+
+  /**
+   * Starts the HTTP server exposing all metrics under {@code /metrics}, including JVM metrics.
+   *
+   * @param config the metrics config
+   * @throws IOException if the server can not be started
+   */
+  public static void serve(MetricsConfig config) throws IOException {
+    DefaultExports.initialize();
+    new HTTPServer.Builder()
+        .withHostname(config.bindHost())
+        .withPort(config.port())
+        .withDaemonThreads(true)
+        .build();
+    LOGGER.info("Serving metrics on {}:{}", config.bindHost(), config.port());
+  }
+
+  /**
+   * Starts timing a whole interaction. Waiting for a free handler counts towards its duration.
+   *
+   * @param shard the id of the shard that received the interaction
+   * @param type the type of the interaction
+   * @return the timer, which records once it is closed
+   */
+  public static InteractionTimer interaction(int shard, InteractionType type) {
+    return new InteractionTimer(Integer.toString(shard), type, System.nanoTime());
+  }
+
+  /**
+   * Starts timing a stage.
+   *
+   * @param type the type of the interaction
+   * @param stage the stage
+   * @return the timer, which records once it is closed
+   */
+  public static Histogram.Timer stage(InteractionType type, Stage stage) {
+    return STAGES.labels(type.label(), stage.label()).startTimer();
+  }
+
+  /**
+   * Queues a Discord request and times it until it succeeded or failed. Failures are counted and
+   * passed on to the default failure handler.
+   *
+   * @param action the request to queue
+   * @param type the type of the interaction
+   * @param stage the stage, usually {@link Stage#ACK} or {@link Stage#REPLY}
+   * @param callback the callback to run after the request succeeded
+   * @param <T> the type of the request's result
+   */
+  public static <T> void queueTimed(
+      RestAction<T> action,
+      InteractionType type,
+      Stage stage,
+      Consumer<? super T> callback
+  ) {
+    Histogram.Timer timer = stage(type, stage);
+    action.queue(
+        result -> {
+          timer.observeDuration();
+          callback.accept(result);
+        },
+        failure -> {
+          timer.observeDuration();
+          REQUEST_FAILURES.labels(type.label(), stage.label()).inc();
+          RestAction.getDefaultFailure().accept(failure);
+        }
+    );
+  }
+
+  /**
+   * Queues a Discord request and times it until it succeeded or failed.
+   *
+   * @param action the request to queue
+   * @param type the type of the interaction
+   * @param stage the stage, usually {@link Stage#ACK} or {@link Stage#REPLY}
+   * @see #queueTimed(RestAction, InteractionType, Stage, Consumer)
+   */
+  public static void queueTimed(RestAction<?> action, InteractionType type, Stage stage) {
+    queueTimed(action, type, stage, ignored -> {
+    });
+  }
+
+  /**
+   * Starts timing a read from a source database.
+   *
+   * @param source the database path of the source
+   * @return the timer, which records once it is closed
+   */
+  public static Histogram.Timer storageRead(String source) {
+    return STORAGE_READS.labels(source).startTimer();
+  }
+
+  /**
+   * Records how long a read waited for a free connection.
+   *
+   * @param source the database path of the source
+   * @param nanos the time spent waiting in nanoseconds
+   */
+  public static void connectionWait(String source, long nanos) {
+    CONNECTION_WAITS.labels(source).observe(nanos / Collector.NANOSECONDS_PER_SECOND);
+  }
+
+  /**
+   * Starts timing the deserialization of an element.
+   *
+   * @param source the database path of the source
+   * @param headerOnly whether only the header of the element is decoded
+   * @return the timer, which records once it is closed
+   */
+  public static Histogram.Timer decode(String source, boolean headerOnly) {
+    return DECODES.labels(source, headerOnly ? "header" : "element").startTimer();
+  }
+
+  /**
+   * Counts the result of a slash command query.
+   *
+   * @param matches the amount of names the query matched
+   */
+  public static void queryResult(int matches) {
+    QUERY_RESULTS.labels(matches == 0 ? "none" : matches == 1 ? "single" : "many").inc();
+  }
+
+  /**
+   * Counts an event received from the gateway.
+   *
+   * @param shard the id of the shard that received the event
+   */
+  public static void gatewayEvent(int shard) {
+    GATEWAY_EVENTS.labels(Integer.toString(shard)).inc();
+  }
+
+  /**
+   * Records the heartbeat round trip time of a shard.
+   *
+   * @param shard the id of the shard
+   * @param pingMillis the round trip time in milliseconds
+   */
+  public static void gatewayPing(int shard, long pingMillis) {
+    GATEWAY_PING.labels(Integer.toString(shard)).set(pingMillis / 1000.0);
+  }
+
+  /**
+   * Times a whole interaction and records whether its handler failed.
+   */
+  public static final class InteractionTimer implements AutoCloseable {
+
+    private final String shard;
+    private final InteractionType type;
+    private final long start;
+    private volatile boolean failed;
+
+    private InteractionTimer(String shard, InteractionType type, long start) {
+      this.shard = shard;
+      this.type = type;
+      this.start = start;
+    }
+
+    /**
+     * Marks the interaction as failed.
+     */
+    public void fail() {
+      failed = true;
+    }
+
+    @Override
+    public void close() {
+      INTERACTIONS.labels(shard, type.label(), failed ? "error" : "success")
+          .observe((System.nanoTime() - start) / Collector.NANOSECONDS_PER_SECOND);
+    }
+  }
+}
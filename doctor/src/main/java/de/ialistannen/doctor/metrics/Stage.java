@@ -0,0 +1,39 @@
+package de.ialistannen.doctor.metrics;
+
+import java.util.Locale;
+
+/**
+ * The stages of handling an interaction.
+ */
+public enum Stage {
+  /**
+   * Splitting the query into tokens.
+   */
+  TOKENIZE,
+  /**
+   * Searching the name index or the autocomplete cache.
+   */
+  SEARCH,
+  /**
+   * Building the embed or chooser. The chooser reads its elements in this stage.
+   */
+  RENDER,
+  /**
+   * Deferring the interaction, until Discord confirmed it.
+   */
+  ACK,
+  /**
+   * Sending the answer, until Discord confirmed it.
+   */
+  REPLY;
+
+  private final String label;
+
+  Stage() {
+    this.label = name().toLowerCase(Locale.ROOT);
+  }
+
+  String label() {
+    return label;
+  }
+}
@@ -0,0 +1,20 @@
+package de.ialistannen.doctor.rendering;
+
+import java.util.List;
+
+/**
+ * Buttons to choose between multiple matches, independent of the transport they are sent with.
+ *
+ * @param rows the rows of choices, each fitting into one row of buttons
+ */
+public record Chooser(List<List<Choice>> rows) {
+
+  /**
+   * @param id the id of the button
+   * @param label the shortened name of the element
+   * @param emoji the formatted emoji of the element type
+   */
+  public record Choice(String id, String label, String emoji) {
+
+  }
+}
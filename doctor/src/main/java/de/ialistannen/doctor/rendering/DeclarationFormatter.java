@@ -3,6 +3,7 @@ package de.ialistannen.doctor.rendering;
 import static de.ialistannen.doctor.util.ArgumentParsers.nestedQuote;
 import static de.ialistannen.doctor.util.ArgumentParsers.phrase;
 
+import de.ialistannen.doctor.util.ArgumentParser;
 import de.ialistannen.doctor.util.StringReader;
 import de.ialistannen.javadocbpi.model.elements.DocumentedElement;
 import de.ialistannen.javadocbpi.model.elements.DocumentedMethod;
@@ -17,6 +18,11 @@ import org.apache.commons.lang3.tuple.Pair;
 
 public class DeclarationFormatter {
 
+  private static final Pattern ANNOTATION_ASSIGNMENT = Pattern.compile("\\s+=\\s+");
+  private static final Pattern ANNOTATION_VALUE = Pattern.compile("[^,)} ]+");
+  private static final ArgumentParser<String> PHRASE = phrase();
+  private static final ArgumentParser<String> GENERICS = nestedQuote('<', '>');
+
   private final int maxLength;
   private final DeclarationRenderer declarationRenderer;
 
@@ -50,7 +56,7 @@ public class DeclarationFormatter {
   private String formatMethod(StringReader input) {
     StringBuilder result = new StringBuilder();
 
-    result.append(input.readWhile(c -> c != '('));
+    input.readWhile(c -> c != '(', result);
 
     result.append(input.assertRead('('));
     result.append(formatMethodParameters(result.length(), input));
@@ -61,12 +67,12 @@ public class DeclarationFormatter {
 
   private String formatMethodParameters(int currentSize, StringReader input) {
     StringBuilder result = new StringBuilder();
-    boolean chopDown = input.peekWhile(c -> c != ')').length() + currentSize > maxLength;
+    boolean chopDown = input.lengthWhile(c -> c != ')') + currentSize > maxLength;
 
     while (input.peek() != ')') {
       String untilNext = input.readWhile(c -> c != ')' && c != ',' && c != '<').strip();
       if (input.peek() == '<') {
-        untilNext += "<" + nestedQuote('<', '>').parse(input).getOrThrow() + ">";
+        untilNext += "<" + GENERICS.parse(input).getOrThrow() + ">";
         untilNext += input.readWhile(c -> c != ')' && c != ',');
         untilNext = untilNext.strip();
       }
@@ -97,14 +103,13 @@ public class DeclarationFormatter {
     boolean choppedDown = input.remaining() > maxLength;
 
     if (element.hasSuperclass() && element.type() != Type.ENUM) {
-      String rest = input.peekWhile(c -> true);
-      int classIndex = rest.indexOf(element.pathSegment());
-      result.append(input.readChars(classIndex));
-      result.append(input.readChars(element.pathSegment().length()));
+      int classIndex = input.indexOf(element.pathSegment());
+      input.readChars(classIndex, result);
+      input.readChars(element.pathSegment().length(), result);
       // Read generics using the nested parser so "extends" doesn't get lost
       if (input.peek() == '<') {
         result.append("<")
-            .append(nestedQuote('<', '>').parse(input).getOrThrow())
+            .append(GENERICS.parse(input).getOrThrow())
             .append(">");
       }
 
@@ -119,10 +124,8 @@ public class DeclarationFormatter {
     }
 
     if (!element.renderedSuperInterfaces().isEmpty()) {
-      if (!input.peek(" implements ".length()).equals(" implements ")) {
-        String rest = input.peekWhile(c -> true);
-        int index = rest.indexOf(" implements ");
-        result.append(input.readChars(index));
+      if (!input.peekMatches(" implements ")) {
+        input.readChars(input.indexOf(" implements "), result);
       }
 
       if (choppedDown) {
@@ -135,7 +138,7 @@ public class DeclarationFormatter {
         while (input.remaining() > 0) {
           String type = input.readWhile(c -> c == '.' || Character.isJavaIdentifierPart(c));
           if (input.peek() == '<') {
-            type += "<" + nestedQuote('<', '>').parse(input).getOrThrow() + ">";
+            type += "<" + GENERICS.parse(input).getOrThrow() + ">";
           }
           result
               .append(type)
@@ -258,17 +261,17 @@ public class DeclarationFormatter {
     String value = "";
 
     String name = input.readWhile(Character::isJavaIdentifierPart);
-    input.readRegex(Pattern.compile("\\s+=\\s+"));
+    input.readRegex(ANNOTATION_ASSIGNMENT);
 
     if (input.peek() == '"') {
       value += '"';
-      value += phrase().parse(input).getOrThrow();
+      value += PHRASE.parse(input).getOrThrow();
       value += '"';
     } else if (input.peek() == '{') {
       value += input.readWhile(c -> c != '}');
       value += input.assertRead("}");
     } else {
-      value += input.readRegex(Pattern.compile("[^,)} ]+"));
+      value += input.readRegex(ANNOTATION_VALUE);
     }
 
     return Pair.of(name, value);
@@ -280,9 +283,9 @@ public class DeclarationFormatter {
     input.assertRead("{");
     while (input.peek() != '}') {
       if (input.peek() == '"') {
-        elements.add('"' + phrase().parse(input).getOrThrow() + '"');
+        elements.add('"' + PHRASE.parse(input).getOrThrow() + '"');
       } else {
-        elements.add(input.readRegex(Pattern.compile("[^,)} ]+")));
+        elements.add(input.readRegex(ANNOTATION_VALUE));
       }
 
       if (input.peek() != '}') {
@@ -23,6 +23,8 @@ import java.util.StringJoiner;
 import java.util.function.Function;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.MessageEmbed.AuthorInfo;
+import net.dv8tion.jda.api.entities.MessageEmbed.Footer;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
@@ -89,11 +91,7 @@ public class DocEmbedBuilder {
   }
 
   public boolean addShortDescription() {
-    RenderedText renderedText = renderParagraphs(element.javadoc(), 800, 8)
-        .then(text -> limitSize(
-            text,
-            MessageEmbed.DESCRIPTION_MAX_LENGTH - embedBuilder.getDescriptionBuilder().length()
-        ));
+    RenderedText renderedText = renderShortDescription();
     embedBuilder.getDescriptionBuilder()
         .append(renderedText.text());
 
@@ -101,7 +99,23 @@ public class DocEmbedBuilder {
   }
 
   public boolean addLongDescription() {
-    RenderedText renderedText = renderParagraphs(
+    RenderedText renderedText = renderLongDescription();
+    embedBuilder.getDescriptionBuilder()
+        .append(renderedText.text());
+
+    return renderedText.truncated();
+  }
+
+  private RenderedText renderShortDescription() {
+    return renderParagraphs(element.javadoc(), 800, 8)
+        .then(text -> limitSize(
+            text,
+            MessageEmbed.DESCRIPTION_MAX_LENGTH - embedBuilder.getDescriptionBuilder().length()
+        ));
+  }
+
+  private RenderedText renderLongDescription() {
+    return renderParagraphs(
         element.javadoc(),
         MessageEmbed.DESCRIPTION_MAX_LENGTH,
         Integer.MAX_VALUE
@@ -109,10 +123,6 @@ public class DocEmbedBuilder {
         text,
         MessageEmbed.DESCRIPTION_MAX_LENGTH - embedBuilder.getDescriptionBuilder().length()
     ));
-    embedBuilder.getDescriptionBuilder()
-        .append(renderedText.text());
-
-    return renderedText.truncated();
   }
 
   private RenderedText renderParagraphs(
@@ -132,14 +142,14 @@ public class DocEmbedBuilder {
     boolean truncated = false;
 
     // Make a rough guess how many elements we can keep, so later iterations do not need to remove
-    // much. Removing stuff is quadratic and the constant factor is unpleasant.
+    // much. Every top level node is rendered once and only its own text is added to the budget.
     Element body = Jsoup.parseBodyFragment(result.toString()).getElementsByTag("body").get(0);
-    StringBuilder naiveConversion = new StringBuilder();
+    TextBudget naiveConversion = new TextBudget(maxLength, maxNewlines);
     List<Node> children = body.childNodes();
     int endIndex = children.size();
     for (int i = 0; i < children.size(); i++) {
       naiveConversion.append(MarkdownRenderer.render(children.get(i).outerHtml()));
-      if (exceedsSizeLimit(naiveConversion.toString(), maxLength, maxNewlines)) {
+      if (naiveConversion.isExceeded()) {
         truncated = true;
         endIndex = i;
         break;
@@ -148,8 +158,10 @@ public class DocEmbedBuilder {
     // Remove too large elements
     children.stream().toList().stream().skip(endIndex + 1).forEach(Node::remove);
 
+    // The guess keeps the node that overflowed, so drop its leaves until the text fits. This
+    // renders the whole body again per removed node and is only cheap because of the guess above.
     String markdown = MarkdownRenderer.render(body.html());
-    while (exceedsSizeLimit(markdown, maxLength, maxNewlines)) {
+    while (TextBudget.exceeds(markdown, maxLength, maxNewlines)) {
       truncated = true;
       if (body.childNodeSize() <= 1) {
         break;
@@ -161,10 +173,6 @@ public class DocEmbedBuilder {
     return new RenderedText(markdown, truncated);
   }
 
-  private boolean exceedsSizeLimit(String text, int maxLength, int maxNewlines) {
-    return text.length() > maxLength || text.lines().count() > maxNewlines;
-  }
-
   private void deleteLastChild(Element element) {
     if (element.lastChild() instanceof Element inner) {
       deleteLastChild(inner);
@@ -317,8 +325,61 @@ public class DocEmbedBuilder {
     return this;
   }
 
+  /**
+   * Renders all parts of the embed, including both description styles and the tags. This must be
+   * called on a fresh builder.
+   *
+   * @return the rendered parts
+   */
+  public PrerenderedEmbed prerender() {
+    addColor()
+        .addTitle()
+        .addIcon(linkResolver)
+        .addDeclaration()
+        .addTags(true)
+        .addFooter();
+    RenderedText shortDescription = renderShortDescription();
+    RenderedText longDescription = renderLongDescription();
+
+    RenderedEmbed embed = toRendered(embedBuilder.build());
+
+    return new PrerenderedEmbed(
+        embed.color(),
+        embed.title(),
+        embed.titleUrl(),
+        embed.authorName(),
+        embed.authorUrl(),
+        embed.authorIconUrl(),
+        embed.footer(),
+        embed.description(),
+        new PrerenderedEmbed.Description(shortDescription.text(), shortDescription.truncated()),
+        new PrerenderedEmbed.Description(longDescription.text(), longDescription.truncated()),
+        embed.fields()
+    );
+  }
+
   public BuildResult build() {
-    return new BuildResult(embedBuilder.build(), truncatedDescription);
+    return new BuildResult(toRendered(embedBuilder.build()), truncatedDescription);
+  }
+
+  private static RenderedEmbed toRendered(MessageEmbed embed) {
+    AuthorInfo author = embed.getAuthor();
+    Footer footer = embed.getFooter();
+
+    return new RenderedEmbed(
+        embed.getColorRaw(),
+        embed.getTitle(),
+        embed.getUrl(),
+        author == null ? null : author.getName(),
+        author == null ? null : author.getUrl(),
+        author == null ? null : author.getIconUrl(),
+        embed.getDescription(),
+        footer == null ? null : footer.getText(),
+        embed.getFields()
+            .stream()
+            .map(it -> new RenderedEmbed.Field(it.getName(), it.getValue(), it.isInline()))
+            .toList()
+    );
   }
 
   private RenderedText limitSize(String input, int max) {
@@ -342,7 +403,7 @@ public class DocEmbedBuilder {
 
   }
 
-  public record BuildResult(MessageEmbed embed, boolean truncatedDescription) {
+  public record BuildResult(RenderedEmbed embed, boolean truncatedDescription) {
 
   }
 
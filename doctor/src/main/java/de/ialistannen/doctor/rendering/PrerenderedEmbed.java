@@ -0,0 +1,70 @@
+package de.ialistannen.doctor.rendering;
+
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.BuildResult;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import de.ialistannen.doctor.rendering.RenderedEmbed.Field;
+import java.util.List;
+
+/**
+ * All parts of the embed for an element, rendered ahead of time by
+ * {@link DocEmbedBuilder#prerender()}. Embeds for every description style and tag setting can be
+ * assembled from it without rendering any javadoc.
+ *
+ * @param color the raw embed color
+ * @param title the title, null for modules
+ * @param titleUrl the link of the title
+ * @param authorName the simple name of the element
+ * @param authorUrl the link to the online javadoc
+ * @param authorIconUrl the icon of the element type
+ * @param footer the footer text
+ * @param declaration the formatted declaration block
+ * @param shortDescription the description in {@link DescriptionStyle#SHORT}
+ * @param longDescription the description in {@link DescriptionStyle#LONG}
+ * @param tags the tag fields
+ */
+public record PrerenderedEmbed(
+    int color,
+    String title,
+    String titleUrl,
+    String authorName,
+    String authorUrl,
+    String authorIconUrl,
+    String footer,
+    String declaration,
+    Description shortDescription,
+    Description longDescription,
+    List<Field> tags
+) {
+
+  /**
+   * Assembles the embed.
+   *
+   * @param style the description style to use
+   * @param showTags whether to add the tag fields
+   * @return the assembled embed
+   */
+  public BuildResult assemble(DescriptionStyle style, boolean showTags) {
+    Description description = switch (style) {
+      case SHORT -> shortDescription;
+      case LONG -> longDescription;
+    };
+
+    RenderedEmbed embed = new RenderedEmbed(
+        color,
+        title,
+        titleUrl,
+        authorName,
+        authorUrl,
+        authorIconUrl,
+        declaration + description.text(),
+        footer,
+        showTags ? tags : List.of()
+    );
+
+    return new BuildResult(embed, description.truncated());
+  }
+
+  public record Description(String text, boolean truncated) {
+
+  }
+}
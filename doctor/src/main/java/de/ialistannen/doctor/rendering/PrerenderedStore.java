@@ -0,0 +1,240 @@
+package de.ialistannen.doctor.rendering;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import de.ialistannen.doctor.DocTorConfig.StorageConfig;
+import de.ialistannen.doctor.index.SourceFingerprint;
+import de.ialistannen.doctor.storage.SourceDatabase;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A sidecar database next to a source database, holding a {@link PrerenderedEmbed} for every
+ * element of the source.
+ * <p>
+ * The store records the fingerprint of the source it was rendered from and is ignored once the
+ * source changes. The fingerprint also covers everything else the embeds depend on: the javadoc
+ * URL of the source, the external javadoc sites links resolve against and the renderer version.
+ * <p>
+ * Reads go through a {@link SourceDatabase}, so they share its pool of read-only connections and
+ * cached statements instead of queueing on a single connection.
+ */
+public class PrerenderedStore implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PrerenderedStore.class);
+  private static final JsonMapper MAPPER = JsonMapper.builder().build();
+
+  private static final int FORMAT_VERSION = 1;
+  /**
+   * Version of the rendered output. Bump it whenever a change to the rendering changes the embeds,
+   * so existing stores are rendered again.
+   */
+  private static final int RENDERER_VERSION = 1;
+  private static final String EMBED_TABLE = "Prerendered";
+  private static final String METADATA_TABLE = "Metadata";
+
+  private final SourceDatabase database;
+
+  private PrerenderedStore(SourceDatabase database) {
+    this.database = database;
+  }
+
+  /**
+   * Reads the prerendered embed of an element.
+   *
+   * @param qualifiedName the qualified name of the element
+   * @return the embed, if it was prerendered
+   * @throws SQLException if the query fails
+   * @throws IOException if the embed can not be decoded
+   */
+  public Optional<PrerenderedEmbed> get(String qualifiedName) throws SQLException, IOException {
+    Optional<String> data = database.readData(qualifiedName);
+    if (data.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(MAPPER.readValue(data.get(), PrerenderedEmbed.class));
+  }
+
+  /**
+   * Closes the store. Reads must have finished before.
+   *
+   * @throws SQLException if the connections can not be closed
+   */
+  @Override
+  public void close() throws SQLException {
+    database.close();
+  }
+
+  /**
+   * Computes the fingerprint stores of a source are tagged with.
+   *
+   * @param config the config the embeds are rendered with
+   * @param source the source the embeds are rendered from
+   * @param sourceFingerprint the fingerprint of the source database
+   * @return the fingerprint of the store
+   */
+  public static SourceFingerprint fingerprint(
+      DocTorConfig config,
+      SourceConfig source,
+      SourceFingerprint sourceFingerprint
+  ) {
+    List<Object> parts = new ArrayList<>();
+    parts.add(RENDERER_VERSION);
+    parts.add(source.javadocUrl());
+    // Links in any source resolve against the external javadoc of all sources
+    for (SourceConfig it : config.sources()) {
+      parts.add(Optional.ofNullable(it.externalJavadoc()).orElse(List.of()));
+    }
+    return sourceFingerprint.with(parts);
+  }
+
+  /**
+   * Opens a store if it exists and was rendered from a source with the given fingerprint.
+   *
+   * @param file the store file
+   * @param fingerprint the {@link #fingerprint(DocTorConfig, SourceConfig, SourceFingerprint)
+   *     fingerprint} of the store
+   * @param storageConfig the config for the connection pool the store is read with
+   * @return the store or an empty optional if it is missing or outdated
+   * @throws SQLException if the store can not be read
+   */
+  public static Optional<PrerenderedStore> open(
+      Path file,
+      SourceFingerprint fingerprint,
+      StorageConfig storageConfig
+  ) throws SQLException {
+    if (!Files.isRegularFile(file)) {
+      LOGGER.info("No prerendered embeds at {}, rendering live", file);
+      return Optional.empty();
+    }
+
+    String url = "jdbc:sqlite:" + file.toAbsolutePath().toUri() + "?mode=ro";
+    try (
+        Connection connection = DriverManager.getConnection(url);
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+            "SELECT version, fingerprint FROM " + METADATA_TABLE
+        )
+    ) {
+      if (resultSet.next()
+          && resultSet.getInt(1) == FORMAT_VERSION
+          && resultSet.getLong(2) == fingerprint.value()) {
+        return Optional.of(
+            new PrerenderedStore(new SourceDatabase(file, storageConfig, EMBED_TABLE))
+        );
+      }
+    } catch (SQLException e) {
+      LOGGER.warn("Could not read prerendered embeds at {}", file, e);
+    }
+
+    LOGGER.info("Prerendered embeds at {} are outdated, rendering live", file);
+    return Optional.empty();
+  }
+
+  /**
+   * Starts writing a new store. The existing one is only replaced once the writer is
+   * {@link Writer#finish() finished}.
+   *
+   * @param file the store file
+   * @param fingerprint the {@link #fingerprint(DocTorConfig, SourceConfig, SourceFingerprint)
+   *     fingerprint} of the store
+   * @return the writer
+   * @throws SQLException if the store can not be created
+   * @throws IOException if an old temporary file can not be deleted
+   */
+  public static Writer create(Path file, SourceFingerprint fingerprint)
+      throws SQLException, IOException {
+    return new Writer(file.toAbsolutePath(), fingerprint);
+  }
+
+  public static class Writer implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Path target;
+    private final Path temp;
+    private final SourceFingerprint fingerprint;
+    private final Connection connection;
+    private final PreparedStatement insertStatement;
+    private int pending;
+
+    private Writer(Path target, SourceFingerprint fingerprint) throws SQLException, IOException {
+      this.target = target;
+      this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+      this.fingerprint = fingerprint;
+
+      Files.deleteIfExists(temp);
+      this.connection = DriverManager.getConnection("jdbc:sqlite:" + temp);
+      try (Statement statement = connection.createStatement()) {
+        statement.execute(
+            "CREATE TABLE " + EMBED_TABLE
+                + " (qualified_name TEXT PRIMARY KEY NOT NULL, data TEXT NOT NULL)"
+        );
+        statement.execute(
+            "CREATE TABLE " + METADATA_TABLE + " (version INTEGER, fingerprint INTEGER)"
+        );
+      }
+      connection.setAutoCommit(false);
+      this.insertStatement = connection.prepareStatement(
+          "INSERT INTO " + EMBED_TABLE + " (qualified_name, data) VALUES (?, ?)"
+      );
+    }
+
+    public void add(String qualifiedName, PrerenderedEmbed embed)
+        throws SQLException, IOException {
+      insertStatement.setString(1, qualifiedName);
+      insertStatement.setString(2, MAPPER.writeValueAsString(embed));
+      insertStatement.addBatch();
+
+      if (++pending >= BATCH_SIZE) {
+        insertStatement.executeBatch();
+        connection.commit();
+        pending = 0;
+      }
+    }
+
+    /**
+     * Writes the remaining embeds and atomically replaces the store.
+     *
+     * @throws SQLException if writing fails
+     * @throws IOException if the store can not be replaced
+     */
+    public void finish() throws SQLException, IOException {
+      insertStatement.executeBatch();
+      try (PreparedStatement statement = connection.prepareStatement(
+          "INSERT INTO " + METADATA_TABLE + " (version, fingerprint) VALUES (?, ?)"
+      )) {
+        statement.setInt(1, FORMAT_VERSION);
+        statement.setLong(2, fingerprint.value());
+        statement.execute();
+      }
+      connection.commit();
+      close();
+
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws SQLException {
+      if (connection.isClosed()) {
+        return;
+      }
+      insertStatement.close();
+      connection.close();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package de.ialistannen.doctor.rendering;
+
+import de.ialistannen.doctor.DocSources;
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import de.ialistannen.doctor.index.SourceFingerprint;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Renders the embeds of all elements ahead of time and writes them to the
+ * {@link PrerenderedStore} configured for each source.
+ */
+public class Prerenderer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Prerenderer.class);
+  private static final int PROGRESS_INTERVAL = 10_000;
+
+  private final DocTorConfig config;
+  private final DocSources sources;
+
+  public Prerenderer(DocTorConfig config, DocSources sources) {
+    this.config = config;
+    this.sources = sources;
+  }
+
+  /**
+   * Prerenders every source that has a {@code prerendered_database} configured.
+   *
+   * @throws SQLException if reading or writing a database fails
+   * @throws IOException if an element can not be decoded or a store can not be written
+   */
+  public void prerenderAll() throws SQLException, IOException {
+    for (int i = 0; i < config.sources().size(); i++) {
+      SourceConfig source = config.sources().get(i);
+      Optional<Path> target = source.prerenderedDatabasePath();
+      if (target.isEmpty()) {
+        LOGGER.info("Skipping {}, no prerendered database configured", source.database());
+        continue;
+      }
+      prerender(i, source, target.get());
+    }
+  }
+
+  private void prerender(int sourceIndex, SourceConfig source, Path target)
+      throws SQLException, IOException {
+    LOGGER.info("Prerendering {} to {}", source.database(), target);
+
+    List<String> names = new ArrayList<>();
+    sources.database(sourceIndex).forEachName(names::add);
+
+    int rendered = 0;
+    try (PrerenderedStore.Writer writer = PrerenderedStore.create(
+        target,
+        PrerenderedStore.fingerprint(config, source, SourceFingerprint.of(source))
+    )) {
+      for (String name : names) {
+        // Names defined by an earlier source are never served from this one
+        if (sources.routing().sourceOf(name).orElse(-1) != sourceIndex) {
+          continue;
+        }
+        Optional<DocEmbedBuilder> builder = sources.embedBuilder(name);
+        if (builder.isEmpty()) {
+          continue;
+        }
+        writer.add(name, builder.get().prerender());
+
+        if (++rendered % PROGRESS_INTERVAL == 0) {
+          LOGGER.info("Prerendered {}/{} elements", rendered, names.size());
+        }
+      }
+      writer.finish();
+    }
+
+    LOGGER.info("Prerendered {} elements of {}", rendered, source.database());
+  }
+}
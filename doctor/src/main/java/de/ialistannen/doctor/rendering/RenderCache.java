@@ -0,0 +1,46 @@
+package de.ialistannen.doctor.rendering;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.BuildResult;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import java.util.Optional;
+
+/**
+ * Caches rendered embeds. A rendered embed only depends on the element, the description style and
+ * whether tags are shown, so it can be shared between all users and messages.
+ * <p>
+ * The cache must be {@link #invalidateAll() invalidated} when the sources change.
+ */
+public class RenderCache {
+
+  private final Cache<RenderKey, BuildResult> cache;
+
+  public RenderCache(long maximumSize) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+  }
+
+  public Optional<BuildResult> get(RenderKey key) {
+    return Optional.ofNullable(cache.getIfPresent(key));
+  }
+
+  public void put(RenderKey key, BuildResult result) {
+    cache.put(key, result);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public CacheStats statistics() {
+    return cache.stats();
+  }
+
+  public record RenderKey(String qualifiedName, DescriptionStyle descriptionStyle, boolean tags) {
+
+  }
+}
@@ -0,0 +1,34 @@
+package de.ialistannen.doctor.rendering;
+
+import java.util.List;
+
+/**
+ * The rendered embed of an element, independent of the transport it is sent with. The text follows
+ * Discord's embed limits and markdown flavor.
+ *
+ * @param color the raw embed color
+ * @param title the title, null if there is none
+ * @param titleUrl the link of the title, null if there is none
+ * @param authorName the simple name of the element, null if there is none
+ * @param authorUrl the link to the online javadoc, null if there is none
+ * @param authorIconUrl the icon of the element type, null if there is none
+ * @param description the description
+ * @param footer the footer text, null if there is none
+ * @param fields the fields
+ */
+public record RenderedEmbed(
+    int color,
+    String title,
+    String titleUrl,
+    String authorName,
+    String authorUrl,
+    String authorIconUrl,
+    String description,
+    String footer,
+    List<Field> fields
+) {
+
+  public record Field(String name, String value, boolean inline) {
+
+  }
+}
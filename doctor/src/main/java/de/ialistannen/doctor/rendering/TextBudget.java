@@ -0,0 +1,49 @@
+package de.ialistannen.doctor.rendering;
+
+/**
+ * Tracks the length and line count of text appended piece by piece, so checking a size limit does
+ * not need to look at the whole text again. Lines are counted like {@link String#lines()}.
+ */
+class TextBudget {
+
+  private final int maxLength;
+  private final int maxLines;
+  private long length;
+  private long lineBreaks;
+  private char lastChar;
+
+  TextBudget(int maxLength, int maxLines) {
+    this.maxLength = maxLength;
+    this.maxLines = maxLines;
+  }
+
+  void append(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      // "\r\n" is a single line break
+      if (c == '\r' || (c == '\n' && lastChar != '\r')) {
+        lineBreaks++;
+      }
+      lastChar = c;
+    }
+    length += text.length();
+  }
+
+  long lines() {
+    boolean openLine = length > 0 && lastChar != '\n' && lastChar != '\r';
+    return lineBreaks + (openLine ? 1 : 0);
+  }
+
+  boolean isExceeded() {
+    return length > maxLength || lines() > maxLines;
+  }
+
+  static boolean exceeds(String text, int maxLength, int maxLines) {
+    if (text.length() > maxLength) {
+      return true;
+    }
+    TextBudget budget = new TextBudget(maxLength, maxLines);
+    budget.append(text);
+    return budget.isExceeded();
+  }
+}
@@ -0,0 +1,85 @@
+package de.ialistannen.doctor.rendering;
+
+import de.ialistannen.doctor.buttons.ButtonState;
+import de.ialistannen.doctor.rendering.Chooser.Choice;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveChooser;
+import de.ialistannen.doctor.storage.MultiFileStorage;
+import de.ialistannen.doctor.storage.MultiFileStorage.ElementHeader;
+import de.ialistannen.javadocbpi.util.NameShortener;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class TooManyEmbedBuilder {
+
+  private final static int MAX_ROWS = 5;
+  private final static int MAX_BUTTONS_PER_ROW = 5;
+  private final MultiFileStorage storage;
+  private final ButtonState buttons;
+
+  public TooManyEmbedBuilder(MultiFileStorage storage, ButtonState buttons) {
+    this.storage = storage;
+    this.buttons = buttons;
+  }
+
+  public Chooser buildChooser(String ownerId, Collection<String> qualifiedNames)
+      throws SQLException, IOException {
+    Set<String> potentialMatches = qualifiedNames.stream()
+        .distinct()
+        .limit((long) MAX_BUTTONS_PER_ROW * MAX_ROWS)
+        .collect(Collectors.toSet());
+
+    Map<String, String> qualifiedNameLabelMap = new NameShortener()
+        .shortenMatches(potentialMatches);
+
+    Map<String, ElementHeader> elements = storage.getHeaders(potentialMatches);
+
+    List<List<Choice>> rows = new ArrayList<>();
+    for (var chunk : chunk(qualifiedNameLabelMap.entrySet(), MAX_BUTTONS_PER_ROW)) {
+      List<Choice> choices = new ArrayList<>();
+      for (var entry : chunk) {
+        buildChoice(ownerId, elements.get(entry.getKey()), entry.getValue())
+            .ifPresent(choices::add);
+      }
+      if (!choices.isEmpty()) {
+        rows.add(choices);
+      }
+    }
+    return new Chooser(rows);
+  }
+
+  private Optional<Choice> buildChoice(String ownerId, ElementHeader element, String label) {
+    if (element == null) {
+      return Optional.empty();
+    }
+
+    String id = buttons.chooserButton(new ActiveChooser(
+        ownerId,
+        element.reference().asQualifiedName()
+    ));
+
+    return Optional.of(
+        new Choice(id, label, FormatUtils.getEmoji(element.element()).getFormatted())
+    );
+  }
+
+
+  private static <T> Collection<List<T>> chunk(Collection<T> input, int chunkSize) {
+    var holder = new Object() {
+      int counter;
+    };
+
+    return input.stream()
+        .sequential()
+        .collect(Collectors.groupingBy(
+            t -> (holder.counter++) / chunkSize
+        ))
+        .values();
+  }
+}
@@ -0,0 +1,198 @@
+package de.ialistannen.doctor.replay;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import de.ialistannen.doctor.DocTorConfig.RecordingConfig;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import de.ialistannen.doctor.replay.RecordedInteraction.Kind;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends incoming interactions to a file as JSON lines, so they can be replayed by the
+ * {@link ReplayRunner}.
+ * <p>
+ * User ids are replaced by a salted hash. The salt is random and never written, so pseudonyms can
+ * not be linked to users or across recordings. Guilds, channels and messages are not recorded.
+ * <p>
+ * Interactions are written by a background thread, so recording never blocks the threads handling
+ * them. If the writer can not keep up, interactions are dropped instead.
+ */
+public class InteractionRecorder implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InteractionRecorder.class);
+  private static final JsonMapper MAPPER = JsonMapper.builder().build();
+  private static final int PSEUDONYM_BYTES = 8;
+  private static final int QUEUE_CAPACITY = 10_000;
+  // Tells the writer thread to stop, compared by identity
+  private static final RecordedInteraction END = new RecordedInteraction(
+      0, null, null, null, null, null, null
+  );
+
+  private final Writer writer;
+  private final byte[] salt;
+  private final BlockingQueue<RecordedInteraction> queue;
+  private final AtomicLong dropped;
+  private final Thread writerThread;
+  private volatile boolean closed;
+
+  private InteractionRecorder(Writer writer) {
+    this.writer = writer;
+    this.salt = new byte[16];
+    new SecureRandom().nextBytes(salt);
+    this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    this.dropped = new AtomicLong();
+
+    if (writer == null) {
+      this.writerThread = null;
+    } else {
+      this.writerThread = new Thread(this::writeQueued, "interaction-recorder");
+      writerThread.setDaemon(true);
+      writerThread.start();
+    }
+  }
+
+  public void command(String userId, String query) {
+    record(userId, Kind.COMMAND, query, null, null, null);
+  }
+
+  public void autocomplete(String userId, String query) {
+    record(userId, Kind.AUTOCOMPLETE, query, null, null, null);
+  }
+
+  public void button(String userId, String qualifiedName, DescriptionStyle style, boolean tags) {
+    record(userId, Kind.BUTTON, null, qualifiedName, style, tags);
+  }
+
+  private void record(
+      String userId,
+      Kind kind,
+      String query,
+      String qualifiedName,
+      DescriptionStyle style,
+      Boolean tags
+  ) {
+    if (writer == null || closed) {
+      return;
+    }
+    RecordedInteraction interaction = new RecordedInteraction(
+        System.currentTimeMillis(), pseudonym(userId), kind, query, qualifiedName, style, tags
+    );
+    if (!queue.offer(interaction)) {
+      dropped.incrementAndGet();
+    }
+  }
+
+  /**
+   * Writes queued interactions until {@link #END} is taken. Everything queued at once is written
+   * before flushing, so bursts are not flushed line by line.
+   */
+  private void writeQueued() {
+    List<RecordedInteraction> batch = new ArrayList<>();
+    while (true) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      queue.drainTo(batch);
+      boolean end = batch.stream().anyMatch(it -> it == END);
+
+      try {
+        for (RecordedInteraction interaction : batch) {
+          if (interaction != END) {
+            writer.write(MAPPER.writeValueAsString(interaction));
+            writer.write('\n');
+          }
+        }
+        writer.flush();
+      } catch (IOException e) {
+        LOGGER.warn("Could not record {} interactions", batch.size(), e);
+      }
+      if (end) {
+        return;
+      }
+      batch.clear();
+    }
+  }
+
+  private String pseudonym(String userId) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(salt);
+      byte[] hash = digest.digest(userId.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash, 0, PSEUDONYM_BYTES);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is always available", e);
+    }
+  }
+
+  /**
+   * Writes all queued interactions and closes the file. Interactions recorded afterwards are
+   * dropped.
+   *
+   * @throws IOException if the file can not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (writer == null || closed) {
+      return;
+    }
+    closed = true;
+    try {
+      queue.put(END);
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    writer.close();
+    if (dropped.get() > 0) {
+      LOGGER.warn("Dropped {} interactions the recorder could not keep up with", dropped.get());
+    }
+  }
+
+  /**
+   * @return a recorder that drops all interactions
+   */
+  public static InteractionRecorder disabled() {
+    return new InteractionRecorder(null);
+  }
+
+  /**
+   * Opens the recorder configured in the config. New interactions are appended to an existing
+   * recording.
+   *
+   * @param config the recording config
+   * @return the recorder, which drops all interactions if recording is disabled
+   * @throws IOException if the file can not be opened
+   */
+  public static InteractionRecorder open(RecordingConfig config) throws IOException {
+    if (config.filePath().isEmpty()) {
+      return disabled();
+    }
+    Path file = config.filePath().get();
+    LOGGER.info("Recording interactions to {}", file);
+    return new InteractionRecorder(Files.newBufferedWriter(
+        file,
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND
+    ));
+  }
+}
@@ -0,0 +1,36 @@
+package de.ialistannen.doctor.replay;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+
+/**
+ * A single recorded interaction. Users are only identified by a pseudonym, which is stable within
+ * one recording, so autocomplete keystrokes and button clicks of a user can still be told apart.
+ *
+ * @param timestamp the epoch millis the interaction arrived at
+ * @param user the pseudonym of the user
+ * @param kind the kind of interaction
+ * @param query the query of commands and autocompletion
+ * @param qualifiedName the element a button click rendered
+ * @param style the description style a button click rendered
+ * @param tags whether a button click rendered tags
+ */
+@JsonInclude(Include.NON_NULL)
+public record RecordedInteraction(
+    @JsonProperty("timestamp") long timestamp,
+    @JsonProperty("user") String user,
+    @JsonProperty("kind") Kind kind,
+    @JsonProperty("query") String query,
+    @JsonProperty("qualified_name") String qualifiedName,
+    @JsonProperty("style") DescriptionStyle style,
+    @JsonProperty("tags") Boolean tags
+) {
+
+  public enum Kind {
+    COMMAND,
+    AUTOCOMPLETE,
+    BUTTON
+  }
+}
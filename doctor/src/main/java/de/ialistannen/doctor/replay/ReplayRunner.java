@@ -0,0 +1,343 @@
+package de.ialistannen.doctor.replay;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.doctor.DocTorConfig.ActiveMessagesConfig;
+import de.ialistannen.doctor.buttons.ButtonState;
+import de.ialistannen.doctor.command.CommandListener;
+import de.ialistannen.doctor.command.DocCommand;
+import de.ialistannen.doctor.command.MessageCommand;
+import de.ialistannen.doctor.engine.DocEngine;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import de.ialistannen.doctor.replay.RecordedInteraction.Kind;
+import de.ialistannen.doctor.storage.ActiveMessages;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveChooser;
+import de.ialistannen.doctor.storage.ActiveMessages.ActiveMessage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays a recording from the {@link InteractionRecorder} against a local {@link CommandListener}
+ * and reports the throughput and latency percentiles per kind of interaction.
+ * <p>
+ * Interactions are handed to the listener as {@link StubInteraction stub events}, so they go
+ * through the same execution, deferral, reply building and button state as on Discord, but nothing
+ * is sent. An interaction is done once its answer is queued. Button clicks first register the
+ * message or chooser they belong to, as the reply that showed the button would have. Active
+ * messages are written to a temporary directory if the config stores them on disk.
+ * <p>
+ * Interactions are started on their own virtual thread at their scheduled time, regardless of
+ * whether earlier ones finished, and their latency is measured from that scheduled time. A slow
+ * instance therefore shows up as growing latencies instead of a slower replay.
+ */
+public class ReplayRunner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplayRunner.class);
+  private static final JsonMapper MAPPER = JsonMapper.builder().build();
+  private static final String USAGE = "Usage: replay <config> <recording> [--rate <per second> | "
+      + "--speed <factor>]";
+  private static final Duration ANSWER_TIMEOUT = Duration.ofSeconds(30);
+  /**
+   * Recordings are appended to across restarts. Longer gaps are taken as the downtime between two
+   * sessions and skipped.
+   */
+  private static final Duration SESSION_GAP = Duration.ofMinutes(1);
+
+  private final CommandListener listener;
+  private final ButtonState buttons;
+  private final List<RecordedInteraction> interactions;
+  private final AtomicLong messageIds;
+
+  private ReplayRunner(
+      DocEngine engine,
+      DocTorConfig config,
+      List<RecordedInteraction> interactions
+  ) {
+    this.listener = new CommandListener(
+        config, new DocCommand(engine), InteractionRecorder.disabled()
+    );
+    this.buttons = engine.buttons();
+    this.interactions = interactions;
+    this.messageIds = new AtomicLong(1);
+  }
+
+  /**
+   * Replays the recorded interactions.
+   *
+   * @param schedule the start offset of every interaction in nanoseconds
+   * @return the latency of every interaction in nanoseconds, or -1 if it failed
+   */
+  private long[] replay(long[] schedule) {
+    long[] latencies = new long[interactions.size()];
+    AtomicInteger done = new AtomicInteger();
+    long start = System.nanoTime();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < interactions.size(); i++) {
+        long due = start + schedule[i];
+        // Parking can return early, spuriously or when interrupted
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(wait);
+        }
+
+        int index = i;
+        executor.execute(() -> {
+          try {
+            boolean answered = run(interactions.get(index));
+            latencies[index] = answered ? System.nanoTime() - due : -1;
+          } catch (Exception e) {
+            LOGGER.warn("Replaying {} failed", interactions.get(index), e);
+            latencies[index] = -1;
+          }
+          int finished = done.incrementAndGet();
+          if (finished % 10_000 == 0) {
+            LOGGER.info("Replayed {}/{} interactions", finished, interactions.size());
+          }
+        });
+      }
+    }
+
+    return latencies;
+  }
+
+  /**
+   * Hands an interaction to the listener and waits for its answer.
+   *
+   * @return true if it was answered without an error
+   */
+  private boolean run(RecordedInteraction interaction) throws InterruptedException {
+    String userId = userId(interaction.user());
+    long messageId = messageIds.getAndIncrement();
+    StubInteraction stub = new StubInteraction(Long.parseLong(userId), messageId);
+
+    switch (interaction.kind()) {
+      case COMMAND -> listener.onSlashCommandInteraction(stub.command(interaction.query()));
+      case AUTOCOMPLETE -> listener.onCommandAutoCompleteInteraction(
+          stub.autocomplete(interaction.query())
+      );
+      case BUTTON -> listener.onButtonInteraction(
+          stub.button(registerButton(interaction, userId, Long.toString(messageId)))
+      );
+    }
+    return stub.awaitAnswer(ANSWER_TIMEOUT);
+  }
+
+  /**
+   * Registers the state of the message a recorded click came from and returns the id of a button
+   * leading to the recorded state. Only the resulting state is recorded, so expanded messages are
+   * replayed as an expand click, messages with tags as a click showing them and everything else as
+   * a chooser click.
+   */
+  private String registerButton(RecordedInteraction interaction, String userId, String messageId) {
+    String name = interaction.qualifiedName();
+    boolean tags = Boolean.TRUE.equals(interaction.tags());
+    if (interaction.style() == DescriptionStyle.LONG) {
+      ActiveMessage before = new ActiveMessage(userId, name, DescriptionStyle.SHORT, tags, true);
+      buttons.messageUpdated(messageId, before);
+      return buttons.messageButton(before, MessageCommand.EXPAND);
+    }
+    if (tags) {
+      ActiveMessage before = ActiveMessage.of(userId, name);
+      buttons.messageUpdated(messageId, before);
+      return buttons.messageButton(before, MessageCommand.ADD_TAGS);
+    }
+    return buttons.chooserButton(new ActiveChooser(userId, name));
+  }
+
+  /**
+   * Turns a pseudonym into a user id. Discord ids are positive longs, and button state relies on
+   * that.
+   */
+  private static String userId(String pseudonym) {
+    try {
+      return Long.toString(Long.parseUnsignedLong(pseudonym, 16) >>> 1);
+    } catch (NumberFormatException e) {
+      return Integer.toString(pseudonym.hashCode() & Integer.MAX_VALUE);
+    }
+  }
+
+  private void report(long[] latencies, long durationNanos) {
+    Map<Kind, List<Long>> byKind = new EnumMap<>(Kind.class);
+    List<Long> all = new ArrayList<>();
+    int failed = 0;
+    for (int i = 0; i < latencies.length; i++) {
+      if (latencies[i] < 0) {
+        failed++;
+        continue;
+      }
+      byKind.computeIfAbsent(interactions.get(i).kind(), ignored -> new ArrayList<>())
+          .add(latencies[i]);
+      all.add(latencies[i]);
+    }
+
+    double seconds = durationNanos / 1e9;
+    System.out.printf(
+        Locale.ROOT,
+        "Replayed %d interactions in %.1f s (%.1f/s), %d failed%n",
+        latencies.length, seconds, latencies.length / seconds, failed
+    );
+    System.out.printf(
+        Locale.ROOT,
+        "%-14s %8s %10s %10s %10s %10s%n",
+        "kind", "count", "p50 ms", "p99 ms", "p999 ms", "max ms"
+    );
+    for (Map.Entry<Kind, List<Long>> entry : byKind.entrySet()) {
+      printRow(entry.getKey().name().toLowerCase(Locale.ROOT), entry.getValue());
+    }
+    printRow("all", all);
+  }
+
+  private static void printRow(String name, List<Long> latencies) {
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    System.out.printf(
+        Locale.ROOT,
+        "%-14s %8d %10.2f %10.2f %10.2f %10.2f%n",
+        name,
+        sorted.length,
+        percentile(sorted, 0.5),
+        percentile(sorted, 0.99),
+        percentile(sorted, 0.999),
+        percentile(sorted, 1)
+    );
+  }
+
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+  /**
+   * Spreads the interactions evenly at a fixed rate.
+   */
+  private static long[] fixedRate(int count, double perSecond) {
+    long[] schedule = new long[count];
+    for (int i = 0; i < count; i++) {
+      schedule[i] = (long) (i * 1e9 / perSecond);
+    }
+    return schedule;
+  }
+
+  /**
+   * Keeps the recorded gaps between interactions, divided by the speed factor. Gaps longer than
+   * {@link #SESSION_GAP} separate two recording sessions and are skipped.
+   */
+  private static long[] recordedTiming(List<RecordedInteraction> interactions, double speed) {
+    long[] schedule = new long[interactions.size()];
+    long elapsedMillis = 0;
+    for (int i = 1; i < schedule.length; i++) {
+      long gap = interactions.get(i).timestamp() - interactions.get(i - 1).timestamp();
+      if (gap > 0 && gap <= SESSION_GAP.toMillis()) {
+        elapsedMillis += gap;
+      }
+      schedule[i] = (long) (elapsedMillis * 1e6 / speed);
+    }
+    return schedule;
+  }
+
+  private static List<RecordedInteraction> read(Path recording) throws IOException {
+    List<RecordedInteraction> interactions = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(recording, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isBlank()) {
+          interactions.add(MAPPER.readValue(line, RecordedInteraction.class));
+        }
+      }
+    }
+    return interactions;
+  }
+
+  /**
+   * Runs a replay from the command line.
+   *
+   * @param args the config, the recording and optionally {@code --rate <per second>} to replay at
+   *     a fixed rate or {@code --speed <factor>} to speed up the recorded timing
+   * @throws SQLException if a database can not be read
+   * @throws IOException if the config, recording or sources can not be read
+   * @throws InterruptedException if interrupted while fetching external javadoc
+   */
+  public static void run(String[] args) throws SQLException, IOException, InterruptedException {
+    if (args.length != 2 && args.length != 4) {
+      throw new IllegalArgumentException(USAGE);
+    }
+    DocTorConfig config = DocTorConfig.read(Path.of(args[0]));
+    List<RecordedInteraction> interactions = read(Path.of(args[1]));
+
+    long[] schedule;
+    if (args.length == 2) {
+      schedule = recordedTiming(interactions, 1);
+    } else if (args[2].equals("--rate")) {
+      schedule = fixedRate(interactions.size(), Double.parseDouble(args[3]));
+    } else if (args[2].equals("--speed")) {
+      schedule = recordedTiming(interactions, Double.parseDouble(args[3]));
+    } else {
+      throw new IllegalArgumentException(USAGE);
+    }
+
+    Path messagesDirectory = null;
+    ActiveMessages activeMessages;
+    ActiveMessagesConfig messagesConfig = config.activeMessages();
+    if (messagesConfig.directoryPath().isPresent()) {
+      messagesDirectory = Files.createTempDirectory("replay-messages");
+      activeMessages = ActiveMessages.open(new ActiveMessagesConfig(
+          messagesDirectory.toString(),
+          messagesConfig.memoryEntries(),
+          messagesConfig.ttlDays(),
+          messagesConfig.segmentMegabytes(),
+          messagesConfig.maxDiskMegabytes()
+      ));
+    } else {
+      activeMessages = new ActiveMessages();
+    }
+
+    try (activeMessages) {
+      ReplayRunner runner = new ReplayRunner(
+          DocEngine.create(config, activeMessages),
+          config,
+          interactions
+      );
+      LOGGER.info("Replaying {} interactions", interactions.size());
+
+      long start = System.nanoTime();
+      long[] latencies = runner.replay(schedule);
+      runner.report(latencies, System.nanoTime() - start);
+    } finally {
+      if (messagesDirectory != null) {
+        deleteRecursively(messagesDirectory);
+      }
+    }
+  }
+
+  private static void deleteRecursively(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package de.ialistannen.doctor.replay;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.AutoCompleteQuery;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.CommandAutoCompleteInteraction;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+import net.dv8tion.jda.api.interactions.components.buttons.ButtonInteraction;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.MessageEditCallbackAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+
+/**
+ * Stands in for Discord while a single interaction is replayed. It creates events backed by stub
+ * interactions whose requests succeed right away without sending anything, and notes when the
+ * interaction was answered.
+ * <p>
+ * Only what the command handlers use is stubbed, other methods return null, zero or false. The
+ * handlers only answer ephemerally with errors, so an ephemeral answer counts as a failure.
+ */
+final class StubInteraction {
+
+  // Requests that answer the interaction, as opposed to acknowledging it or fetching its message
+  private static final Set<String> ANSWERS = Set.of(
+      "reply", "editMessage", "editOriginal", "sendMessage", "deleteOriginal", "replyChoices"
+  );
+
+  private final JDA jda;
+  private final User user;
+  private final Message message;
+  private final InteractionHook hook;
+  private final CompletableFuture<Boolean> answered;
+  private volatile boolean ephemeral;
+
+  /**
+   * @param userId the id of the user sending the interaction
+   * @param messageId the id of the message the bot answers with or the button belongs to
+   */
+  StubInteraction(long userId, long messageId) {
+    this.jda = stub(JDA.class, Map.of("getShardInfo", args -> JDA.ShardInfo.SINGLE));
+    this.user = stub(User.class, Map.of(
+        "getIdLong", args -> userId,
+        "getId", args -> Long.toString(userId)
+    ));
+    this.message = stub(Message.class, Map.of(
+        "getIdLong", args -> messageId,
+        "getId", args -> Long.toString(messageId)
+    ));
+    this.hook = stub(InteractionHook.class, Map.of());
+    this.answered = new CompletableFuture<>();
+  }
+
+  /**
+   * @param query the query option
+   * @return a {@code /doc} command event
+   */
+  SlashCommandInteractionEvent command(String query) {
+    OptionMapping option = queryOption(query);
+    SlashCommandInteraction interaction = stub(SlashCommandInteraction.class, Map.of(
+        "getName", args -> "doc",
+        "getUser", args -> user,
+        "getHook", args -> hook,
+        "getOptions", args -> List.of(option)
+    ));
+    return new SlashCommandInteractionEvent(jda, 0, interaction) {
+      @Override
+      public ReplyCallbackAction reply(MessageCreateData data) {
+        return action(ReplyCallbackAction.class, "reply");
+      }
+    };
+  }
+
+  /**
+   * @param query the value of the focused query option
+   * @return an autocomplete event of the {@code /doc} command
+   */
+  CommandAutoCompleteInteractionEvent autocomplete(String query) {
+    OptionMapping option = queryOption(query);
+    AutoCompleteQuery focused = new AutoCompleteQuery(option);
+    CommandAutoCompleteInteraction interaction = stub(CommandAutoCompleteInteraction.class, Map.of(
+        "getName", args -> "doc",
+        "getUser", args -> user,
+        "getFocusedOption", args -> focused,
+        "getOptions", args -> List.of(option)
+    ));
+    return new CommandAutoCompleteInteractionEvent(jda, 0, interaction);
+  }
+
+  /**
+   * @param componentId the id of the clicked button
+   * @return a button click on the message of this interaction
+   */
+  ButtonInteractionEvent button(String componentId) {
+    ButtonInteraction interaction = stub(ButtonInteraction.class, Map.of(
+        "getComponentId", args -> componentId,
+        "getUser", args -> user,
+        "getHook", args -> hook,
+        "getMessage", args -> message,
+        "getMessageId", args -> message.getId(),
+        "getMessageIdLong", args -> message.getIdLong()
+    ));
+    return new ButtonInteractionEvent(jda, 0, interaction) {
+      @Override
+      public ReplyCallbackAction reply(MessageCreateData data) {
+        return action(ReplyCallbackAction.class, "reply");
+      }
+
+      @Override
+      public MessageEditCallbackAction editMessage(MessageEditData data) {
+        return action(MessageEditCallbackAction.class, "editMessage");
+      }
+    };
+  }
+
+  /**
+   * Waits until the interaction was answered.
+   *
+   * @param timeout the maximum time to wait
+   * @return true if it was answered without an error in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  boolean awaitAnswer(Duration timeout) throws InterruptedException {
+    try {
+      return answered.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException | TimeoutException e) {
+      return false;
+    }
+  }
+
+  private OptionMapping queryOption(String query) {
+    DataObject data = DataObject.empty()
+        .put("name", "query")
+        .put("type", OptionType.STRING.getKey())
+        .put("value", query);
+    // Resolved entities are only needed for mentionable options
+    return new OptionMapping(data, null, jda, null);
+  }
+
+  private <T> T action(Class<T> type, String request) {
+    Object[] self = new Object[1];
+    self[0] = stub(type, Map.of(
+        "queue", args -> {
+          queue(request, args);
+          return null;
+        },
+        "setEphemeral", args -> {
+          ephemeral |= (boolean) args[0];
+          return self[0];
+        }
+    ));
+    return type.cast(self[0]);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void queue(String request, Object[] args) {
+    Object result = switch (request) {
+      case "retrieveOriginal", "editOriginal", "sendMessage" -> message;
+      case "deleteOriginal", "replyChoices" -> null;
+      default -> hook;
+    };
+    // Callbacks run before the interaction counts as answered, they store the message state
+    if (args != null && args.length > 0 && args[0] != null) {
+      ((Consumer<Object>) args[0]).accept(result);
+    }
+    if (ANSWERS.contains(request)) {
+      answered.complete(!ephemeral);
+    }
+  }
+
+  private <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+    InvocationHandler handler = (proxy, method, args) -> {
+      Function<Object[], Object> answer = answers.get(method.getName());
+      if (answer != null) {
+        return answer.apply(args);
+      }
+      if (method.getDeclaringClass() == Object.class) {
+        return objectMethod(proxy, method, args);
+      }
+      if (method.getReturnType().isInstance(proxy)) {
+        return proxy;
+      }
+      if (RestAction.class.isAssignableFrom(method.getReturnType())) {
+        return action(method.getReturnType(), method.getName());
+      }
+      if (method.isDefault()) {
+        return InvocationHandler.invokeDefault(proxy, method, args);
+      }
+      return defaultValue(method.getReturnType());
+    };
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+  }
+
+  private static Object objectMethod(Object proxy, Method method, Object[] args) {
+    return switch (method.getName()) {
+      case "equals" -> proxy == args[0];
+      case "hashCode" -> System.identityHashCode(proxy);
+      default -> "Stub" + proxy.getClass().getInterfaces()[0].getSimpleName();
+    };
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (!type.isPrimitive() || type == void.class) {
+      return null;
+    }
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == char.class) {
+      return '\0';
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    if (type == float.class) {
+      return 0f;
+    }
+    if (type == double.class) {
+      return 0d;
+    }
+    if (type == byte.class) {
+      return (byte) 0;
+    }
+    if (type == short.class) {
+      return (short) 0;
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,185 @@
+package de.ialistannen.doctor.storage;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.ialistannen.doctor.DocTorConfig.ActiveMessagesConfig;
+import de.ialistannen.doctor.rendering.DocEmbedBuilder.DescriptionStyle;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The state behind the buttons of sent messages.
+ * <p>
+ * Recently used entries are kept in memory. If a directory is configured, all entries are also
+ * written to a {@link MessageLog}, so older buttons and buttons sent before a restart keep working
+ * until their time to live is over.
+ */
+public class ActiveMessages implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ActiveMessages.class);
+  private static final JsonMapper MAPPER = JsonMapper.builder().build();
+  private static final String CHOOSER_PREFIX = "chooser:";
+  private static final String MESSAGE_PREFIX = "message:";
+
+  private final Cache<String, ActiveChooser> activeChoosers;
+  private final Cache<String, ActiveMessage> activeMessages;
+  private final Optional<MessageLog> log;
+
+  /**
+   * Creates an instance that only keeps entries in memory.
+   */
+  public ActiveMessages() {
+    this(1000, Duration.ofDays(14), Optional.empty());
+  }
+
+  private ActiveMessages(int memoryEntries, Duration timeToLive, Optional<MessageLog> log) {
+    this.activeChoosers = Caffeine.newBuilder()
+        .maximumSize(memoryEntries)
+        .expireAfterWrite(timeToLive)
+        .build();
+    this.activeMessages = Caffeine.newBuilder()
+        .maximumSize(memoryEntries)
+        .expireAfterWrite(timeToLive)
+        .build();
+    this.log = log;
+  }
+
+  public String registerChooser(ActiveChooser chooser) {
+    String id = UUID.randomUUID().toString();
+    activeChoosers.put(id, chooser);
+    write(CHOOSER_PREFIX + id, chooser);
+    return id;
+  }
+
+  public Optional<ActiveChooser> lookupChooser(String id) {
+    ActiveChooser chooser = activeChoosers.getIfPresent(id);
+    if (chooser != null) {
+      return Optional.of(chooser);
+    }
+    Optional<ActiveChooser> stored = read(CHOOSER_PREFIX + id, ActiveChooser.class);
+    stored.ifPresent(it -> activeChoosers.put(id, it));
+    return stored;
+  }
+
+  public ActiveMessage registerMessage(String messageId, ActiveMessage message) {
+    activeMessages.put(messageId, message);
+    write(MESSAGE_PREFIX + messageId, message);
+    return message;
+  }
+
+  public Optional<ActiveMessage> lookupMessage(String messageId) {
+    ActiveMessage message = activeMessages.getIfPresent(messageId);
+    if (message != null) {
+      return Optional.of(message);
+    }
+    Optional<ActiveMessage> stored = read(MESSAGE_PREFIX + messageId, ActiveMessage.class);
+    stored.ifPresent(it -> activeMessages.put(messageId, it));
+    return stored;
+  }
+
+  public void deleteMessage(String messageId) {
+    activeMessages.invalidate(messageId);
+    if (log.isEmpty()) {
+      return;
+    }
+    try {
+      log.get().delete(MESSAGE_PREFIX + messageId);
+    } catch (IOException e) {
+      LOGGER.warn("Could not delete message {} from the message log", messageId, e);
+    }
+  }
+
+  private void write(String key, Object value) {
+    if (log.isEmpty()) {
+      return;
+    }
+    try {
+      log.get().put(key, MAPPER.writeValueAsBytes(value));
+    } catch (IOException e) {
+      // It still works until it is evicted from memory
+      LOGGER.warn("Could not write {} to the message log", key, e);
+    }
+  }
+
+  private <T> Optional<T> read(String key, Class<T> type) {
+    if (log.isEmpty()) {
+      return Optional.empty();
+    }
+    try {
+      Optional<byte[]> data = log.get().get(key);
+      if (data.isEmpty()) {
+        return Optional.empty();
+      }
+      return Optional.of(MAPPER.readValue(data.get(), type));
+    } catch (IOException e) {
+      LOGGER.warn("Could not read {} from the message log", key, e);
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (log.isPresent()) {
+      log.get().close();
+    }
+  }
+
+  /**
+   * Opens the active messages, replaying the message log if one is configured.
+   *
+   * @param config the config to use
+   * @return the opened instance
+   * @throws IOException if the message log can not be read
+   */
+  public static ActiveMessages open(ActiveMessagesConfig config) throws IOException {
+    Optional<MessageLog> log = Optional.empty();
+    if (config.directoryPath().isPresent()) {
+      log = Optional.of(MessageLog.open(
+          config.directoryPath().get(),
+          config.timeToLive(),
+          config.segmentBytes(),
+          config.maxDiskBytes()
+      ));
+    }
+
+    return new ActiveMessages(config.maxMemoryEntries(), config.timeToLive(), log);
+  }
+
+  public record ActiveChooser(
+      String ownerId,
+      String qualifiedName
+  ) {
+
+  }
+
+  public record ActiveMessage(
+      String ownerId,
+      String qualifiedName,
+      DescriptionStyle descriptionStyle,
+      boolean tags,
+      boolean expandable
+  ) {
+
+    public ActiveMessage withDescriptionStyle(DescriptionStyle style) {
+      return new ActiveMessage(ownerId(), qualifiedName(), style, tags(), expandable);
+    }
+
+    public ActiveMessage withTags(boolean tags) {
+      return new ActiveMessage(ownerId(), qualifiedName(), descriptionStyle(), tags, expandable);
+    }
+
+    public ActiveMessage withExpandable(boolean expandable) {
+      return new ActiveMessage(ownerId(), qualifiedName(), descriptionStyle(), tags, expandable);
+    }
+
+    public static ActiveMessage of(String ownerId, String qualifiedName) {
+      return new ActiveMessage(ownerId, qualifiedName, DescriptionStyle.SHORT, false, true);
+    }
+  }
+
+}
@@ -0,0 +1,174 @@
+package de.ialistannen.doctor.storage;
+
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded amount of off-heap memory, handed out in fixed size blocks.
+ * <p>
+ * Allocating a direct buffer per entry leaves freed memory to the garbage collector and counts
+ * every buffer against the direct memory limit separately. The arena instead allocates its memory
+ * in slabs and reuses blocks as soon as an entry is freed. An entry spanning multiple blocks does
+ * not need them to be contiguous, so the arena never fragments beyond the last block of an entry.
+ * <p>
+ * Slabs are only allocated once their first block is needed and are freed explicitly when the
+ * arena is {@link #close() closed}, not when the garbage collector gets around to it.
+ */
+class BlockArena implements AutoCloseable {
+
+  static final int BLOCK_SIZE = 1024;
+  private static final int SLAB_BYTES = 64 * 1024 * 1024;
+
+  private final Arena arena;
+  private final ByteBuffer[] slabs;
+  private final int blockCount;
+  private final int blocksPerSlab;
+  private final int[] freeBlocks;
+  private int freeCount;
+
+  /**
+   * Creates an arena. No memory is allocated until the first entry is stored.
+   *
+   * @param bytes the size of the arena, rounded down to whole blocks
+   */
+  BlockArena(long bytes) {
+    this.arena = Arena.openShared();
+    this.blockCount = Math.toIntExact(bytes / BLOCK_SIZE);
+    this.blocksPerSlab = SLAB_BYTES / BLOCK_SIZE;
+    this.slabs = new ByteBuffer[(blockCount + blocksPerSlab - 1) / blocksPerSlab];
+
+    this.freeBlocks = new int[blockCount];
+    for (int i = 0; i < blockCount; i++) {
+      freeBlocks[i] = blockCount - 1 - i;
+    }
+    this.freeCount = blockCount;
+  }
+
+  /**
+   * Copies data into newly allocated blocks.
+   *
+   * @param data the data to store
+   * @return the allocation or an empty optional if there are not enough free blocks
+   */
+  Optional<Allocation> store(byte[] data) {
+    int[] blocks = allocate((data.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    if (blocks == null) {
+      return Optional.empty();
+    }
+    for (int i = 0; i < blocks.length; i++) {
+      int offset = i * BLOCK_SIZE;
+      int count = Math.min(BLOCK_SIZE, data.length - offset);
+      slab(blocks[i]).put(position(blocks[i]), data, offset, count);
+    }
+    return Optional.of(new Allocation(blocks, data.length));
+  }
+
+  private synchronized int[] allocate(int count) {
+    if (count > freeCount) {
+      return null;
+    }
+    int[] blocks = Arrays.copyOfRange(freeBlocks, freeCount - count, freeCount);
+    freeCount -= count;
+    // Blocks are handed out lowest first, so slabs are only allocated once the previous ones are
+    // full. Readers only see the slab through the allocation, which is published after this.
+    for (int block : blocks) {
+      int slab = block / blocksPerSlab;
+      if (slabs[slab] == null) {
+        int slabBlocks = Math.min(blocksPerSlab, blockCount - slab * blocksPerSlab);
+        slabs[slab] = arena.allocate((long) slabBlocks * BLOCK_SIZE).asByteBuffer();
+      }
+    }
+    return blocks;
+  }
+
+  private synchronized void free(int[] blocks) {
+    System.arraycopy(blocks, 0, freeBlocks, freeCount, blocks.length);
+    freeCount += blocks.length;
+  }
+
+  /**
+   * Frees the memory of the arena. Allocations must not be read afterwards.
+   */
+  @Override
+  public void close() {
+    arena.close();
+  }
+
+  private ByteBuffer slab(int block) {
+    return slabs[block / blocksPerSlab];
+  }
+
+  private int position(int block) {
+    return (block % blocksPerSlab) * BLOCK_SIZE;
+  }
+
+  /**
+   * Blocks holding a single entry. The blocks are returned to the arena once the owner and all
+   * readers released the allocation, so a reader never sees blocks reused by another entry.
+   */
+  class Allocation {
+
+    private final int[] blocks;
+    private final int length;
+    private final AtomicInteger references;
+
+    private Allocation(int[] blocks, int length) {
+      this.blocks = blocks;
+      this.length = length;
+      this.references = new AtomicInteger(1);
+    }
+
+    /**
+     * Copies the stored data, unless the allocation was already freed.
+     *
+     * @return the data or an empty optional if the allocation was freed concurrently
+     */
+    Optional<byte[]> read() {
+      if (!tryRetain()) {
+        return Optional.empty();
+      }
+      try {
+        byte[] data = new byte[length];
+        for (int i = 0; i < blocks.length; i++) {
+          int offset = i * BLOCK_SIZE;
+          int count = Math.min(BLOCK_SIZE, data.length - offset);
+          slab(blocks[i]).get(position(blocks[i]), data, offset, count);
+        }
+        return Optional.of(data);
+      } finally {
+        release();
+      }
+    }
+
+    /**
+     * @return the amount of arena memory the allocation occupies
+     */
+    int size() {
+      return blocks.length * BLOCK_SIZE;
+    }
+
+    private boolean tryRetain() {
+      while (true) {
+        int current = references.get();
+        if (current == 0) {
+          return false;
+        }
+        if (references.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * Releases a reference, freeing the blocks once none are left.
+     */
+    void release() {
+      if (references.decrementAndGet() == 0) {
+        free(blocks);
+      }
+    }
+  }
+}
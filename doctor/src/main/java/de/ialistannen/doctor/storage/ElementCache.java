@@ -0,0 +1,134 @@
+package de.ialistannen.doctor.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.ialistannen.doctor.storage.BlockArena.Allocation;
+import de.ialistannen.doctor.storage.MultiFileStorage.ElementHeader;
+import de.ialistannen.doctor.storage.MultiFileStorage.FetchResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * A two tier cache for elements. Decoded elements are kept on the heap, their serialized form in a
+ * larger off-heap tier, so a heap miss only costs decoding and not a database read.
+ * <p>
+ * Element headers, which choosers and parent titles use, are cached separately on the heap, so
+ * they neither need nor evict the complete elements.
+ * <p>
+ * All tiers are weighted by the UTF-8 size of the serialized element or header. The off-heap tier
+ * is a {@link BlockArena}, which allocates its memory as it fills up and frees it once the cache is
+ * {@link #close() closed}.
+ */
+public class ElementCache implements AutoCloseable {
+
+  private final Cache<String, HeapEntry> heap;
+  private final Cache<String, HeaderEntry> headers;
+  private final BlockArena arena;
+  private final Cache<String, Allocation> offHeap;
+
+  public ElementCache(long heapBytes, long offHeapBytes, long headerBytes) {
+    this.heap = Caffeine.newBuilder()
+        .maximumWeight(heapBytes)
+        .<String, HeapEntry>weigher((key, value) -> value.size())
+        .recordStats()
+        .build();
+    this.headers = Caffeine.newBuilder()
+        .maximumWeight(headerBytes)
+        .<String, HeaderEntry>weigher((key, value) -> value.size())
+        .recordStats()
+        .build();
+    this.arena = new BlockArena(offHeapBytes);
+    // Evict synchronously and keep some headroom, so evicted blocks are free before the arena runs
+    // full. An entry is only not cached if the arena has no room left for it anyway.
+    this.offHeap = Caffeine.newBuilder()
+        .maximumWeight(offHeapBytes - offHeapBytes / 8)
+        .<String, Allocation>weigher((key, value) -> value.size())
+        .executor(Runnable::run)
+        .<String, Allocation>removalListener((key, value, cause) -> value.release())
+        .recordStats()
+        .build();
+  }
+
+  public Optional<FetchResult> getDecoded(String qualifiedName) {
+    return Optional.ofNullable(heap.getIfPresent(qualifiedName)).map(HeapEntry::result);
+  }
+
+  public Optional<ElementHeader> getHeader(String qualifiedName) {
+    return Optional.ofNullable(headers.getIfPresent(qualifiedName)).map(HeaderEntry::header);
+  }
+
+  public void putHeader(String qualifiedName, ElementHeader header, String serialized) {
+    headers.put(qualifiedName, new HeaderEntry(header, utf8Length(serialized)));
+  }
+
+  public Optional<String> getSerialized(String qualifiedName) {
+    Allocation allocation = offHeap.getIfPresent(qualifiedName);
+    if (allocation == null) {
+      return Optional.empty();
+    }
+    // The entry might be evicted and freed while reading it
+    return allocation.read().map(bytes -> new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  public void putSerialized(String qualifiedName, String data) {
+    arena.store(data.getBytes(StandardCharsets.UTF_8))
+        .ifPresent(allocation -> offHeap.put(qualifiedName, allocation));
+  }
+
+  public void putDecoded(String qualifiedName, FetchResult result, String serialized) {
+    heap.put(qualifiedName, new HeapEntry(result, utf8Length(serialized)));
+  }
+
+  /**
+   * Frees the off-heap tier. The cache must not be used afterwards.
+   */
+  @Override
+  public void close() {
+    arena.close();
+  }
+
+  public Statistics statistics() {
+    return new Statistics(
+        heap.stats(), heap.estimatedSize(),
+        headers.stats(), headers.estimatedSize(),
+        offHeap.stats(), offHeap.estimatedSize()
+    );
+  }
+
+  /**
+   * Counts the UTF-8 bytes of a string without encoding it.
+   */
+  private static int utf8Length(String string) {
+    int length = string.length();
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c >= 0x800) {
+        // Surrogate pairs are two chars and four bytes, other chars up to here three bytes
+        length += Character.isSurrogate(c) ? 1 : 2;
+      } else if (c >= 0x80) {
+        length += 1;
+      }
+    }
+    return length;
+  }
+
+  private record HeapEntry(FetchResult result, int size) {
+
+  }
+
+  private record HeaderEntry(ElementHeader header, int size) {
+
+  }
+
+  public record Statistics(
+      CacheStats heap,
+      long heapEntries,
+      CacheStats headers,
+      long headerEntries,
+      CacheStats offHeap,
+      long offHeapEntries
+  ) {
+
+  }
+}
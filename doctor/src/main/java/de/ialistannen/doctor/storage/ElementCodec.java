@@ -0,0 +1,182 @@
+package de.ialistannen.doctor.storage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import de.ialistannen.doctor.storage.MultiFileStorage.ElementHeader;
+import de.ialistannen.doctor.storage.MultiFileStorage.FetchResult;
+import de.ialistannen.javadocbpi.model.elements.DocumentedElement;
+import de.ialistannen.javadocbpi.model.elements.DocumentedElementReference;
+import de.ialistannen.javadocbpi.storage.JsonSerializer;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the serialized rows of a {@link SourceDatabase} back into elements, the same way the
+ * JavadocIndexer's {@link de.ialistannen.javadocbpi.storage.SQLiteStorage} does.
+ */
+public class ElementCodec {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final String JAVADOC_FIELD = "javadoc";
+
+  private final JsonSerializer serializer;
+
+  public ElementCodec(JsonSerializer serializer) {
+    this.serializer = serializer;
+  }
+
+  /**
+   * Decodes a serialized element.
+   *
+   * @param qualifiedName the qualified name of the element
+   * @param data the serialized element
+   * @param config the source the element belongs to
+   * @return the decoded element
+   * @throws IOException if the data is malformed
+   */
+  public FetchResult decode(String qualifiedName, String data, SourceConfig config)
+      throws IOException {
+    DocumentedElement element = serializer.fromJson(data);
+    DocumentedElementReference reference = DocumentedElementReference.fromString(qualifiedName);
+
+    return new FetchResult(reference, element, config);
+  }
+
+  /**
+   * Decodes the header of a serialized element, i.e. everything but its javadoc. The javadoc tree
+   * is skipped while parsing and never materialized.
+   *
+   * @param qualifiedName the qualified name of the element
+   * @param data the serialized element
+   * @param config the source the element belongs to
+   * @return the decoded element header
+   * @throws IOException if the data is malformed
+   */
+  public ElementHeader decodeHeader(String qualifiedName, String data, SourceConfig config)
+      throws IOException {
+    return decodeStrippedHeader(qualifiedName, stripJavadoc(data), config);
+  }
+
+  /**
+   * Decodes a serialized element whose javadoc was already stripped by
+   * {@link #stripJavadoc(String)}.
+   *
+   * @param qualifiedName the qualified name of the element
+   * @param header the serialized element without javadoc
+   * @param config the source the element belongs to
+   * @return the decoded element header
+   * @throws IOException if the data is malformed
+   */
+  public ElementHeader decodeStrippedHeader(
+      String qualifiedName,
+      String header,
+      SourceConfig config
+  ) throws IOException {
+    DocumentedElement element = serializer.fromJson(header);
+    DocumentedElementReference reference = DocumentedElementReference.fromString(qualifiedName);
+
+    return new ElementHeader(reference, element, config);
+  }
+
+  /**
+   * Replaces the javadoc of a serialized element with an empty one, without materializing it.
+   *
+   * @param data the serialized element
+   * @return the serialized element without javadoc
+   * @throws IOException if the data is malformed
+   */
+  public static String stripJavadoc(String data) throws IOException {
+    return strip(data, null);
+  }
+
+  /**
+   * Splits a serialized element into its {@link #stripJavadoc(String) stripped} form and the
+   * javadoc that was cut out of it, so the javadoc can be stored separately and only read when the
+   * complete element is needed.
+   *
+   * @param data the serialized element
+   * @return the split element
+   * @throws IOException if the data is malformed
+   */
+  public static SplitElement split(String data) throws IOException {
+    List<JavadocPart> javadoc = new ArrayList<>();
+    String header = strip(data, javadoc);
+    return new SplitElement(header, javadoc);
+  }
+
+  /**
+   * Strips the javadoc from a serialized element.
+   *
+   * @param data the serialized element
+   * @param javadoc the list to add the removed javadoc to, null to skip it
+   * @return the serialized element without javadoc
+   */
+  private static String strip(String data, List<JavadocPart> javadoc) throws IOException {
+    StringWriter result = new StringWriter(Math.min(data.length(), 4096));
+
+    try (
+        JsonParser parser = JSON_FACTORY.createParser(data);
+        JsonGenerator generator = JSON_FACTORY.createGenerator(result)
+    ) {
+      while (parser.nextToken() != null) {
+        if (parser.currentToken() == JsonToken.FIELD_NAME
+            && parser.getCurrentName().equals(JAVADOC_FIELD)) {
+          parser.nextToken();
+          generator.writeFieldName(JAVADOC_FIELD);
+          generator.writeStartArray();
+          if (javadoc == null) {
+            parser.skipChildren();
+          } else {
+            generator.flush();
+            javadoc.add(new JavadocPart(result.getBuffer().length(), arrayContents(parser)));
+          }
+          generator.writeEndArray();
+          continue;
+        }
+        generator.copyCurrentEvent(parser);
+      }
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Serializes the contents of the array the parser is at, without the surrounding brackets.
+   */
+  private static String arrayContents(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      throw new IOException("Expected the javadoc to be an array, got " + parser.currentToken());
+    }
+    StringWriter result = new StringWriter();
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(result)) {
+      generator.copyCurrentStructure(parser);
+    }
+    return result.getBuffer().substring(1, result.getBuffer().length() - 1);
+  }
+
+  /**
+   * A serialized element split by {@link #split(String)}.
+   *
+   * @param header the serialized element with empty javadoc arrays
+   * @param javadoc the contents of the javadoc arrays, in the order they appear in
+   */
+  public record SplitElement(String header, List<JavadocPart> javadoc) {
+
+  }
+
+  /**
+   * The contents of a javadoc array cut out of a serialized element.
+   *
+   * @param position the index in the header the contents belong at, right after the opening
+   *     bracket of their empty array
+   * @param contents the serialized array elements
+   */
+  public record JavadocPart(int position, String contents) {
+
+  }
+}
@@ -0,0 +1,63 @@
+package de.ialistannen.doctor.storage;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read access to the serialized elements of a single source.
+ */
+public interface ElementSource extends AutoCloseable {
+
+  /**
+   * Reads the serialized element with the given name.
+   *
+   * @param qualifiedName the qualified name of the element
+   * @return the serialized element, if it exists
+   * @throws SQLException if the read fails
+   */
+  Optional<String> readData(String qualifiedName) throws SQLException;
+
+  /**
+   * Reads the serialized elements with the given names.
+   *
+   * @param qualifiedNames the qualified names of the elements
+   * @return the serialized elements keyed by their qualified name. Missing elements are skipped.
+   * @throws SQLException if the read fails
+   */
+  Map<String, String> readData(Collection<String> qualifiedNames) throws SQLException;
+
+  /**
+   * Reads the serialized headers of the elements with the given names, i.e. the elements without
+   * their javadoc. Sources that do not {@link #storesHeaders() store headers} return the complete
+   * elements instead.
+   *
+   * @param qualifiedNames the qualified names of the elements
+   * @return the serialized headers keyed by their qualified name. Missing elements are skipped.
+   * @throws SQLException if the read fails
+   */
+  default Map<String, String> readHeaderData(Collection<String> qualifiedNames)
+      throws SQLException {
+    return readData(qualifiedNames);
+  }
+
+  /**
+   * @return true if {@link #readHeaderData(Collection)} returns elements with stripped javadoc
+   */
+  default boolean storesHeaders() {
+    return false;
+  }
+
+  /**
+   * Streams all qualified names to the consumer without loading the element data.
+   *
+   * @param consumer the consumer to pass names to
+   * @throws SQLException if the read fails
+   */
+  void forEachName(Consumer<String> consumer) throws SQLException;
+
+  @Override
+  void close() throws SQLException;
+}
@@ -0,0 +1,387 @@
+package de.ialistannen.doctor.storage;
+
+import de.ialistannen.doctor.index.SourceFingerprint;
+import de.ialistannen.doctor.index.SourceRoutingIndex;
+import de.ialistannen.doctor.storage.ElementCodec.JavadocPart;
+import de.ialistannen.doctor.storage.ElementCodec.SplitElement;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A read-only, memory mapped copy of the JSON rows of a {@link SourceDatabase} with a hash index
+ * in front, converted ahead of time. It replaces the SQLite lookup, not the serialization: this is
+ * neither a binary encoding of the elements nor a zero-copy read path.
+ * <p>
+ * Layout: magic, version, the fingerprint of the source database, the table capacity and size and
+ * then an open addressing hash table of name hashes and record offsets, followed by the records.
+ * Every record is the length prefixed UTF-8 qualified name, the length prefixed element without
+ * its javadoc, the amount of javadoc parts and then every part as the byte offset in the element it
+ * was cut out at and its length prefixed contents (see {@link ElementCodec#split(String)}).
+ * Lookups hash the name and compare the stored name in place. Headers are copied out without
+ * touching the javadoc, complete elements splice the javadoc back in while copying, so a read costs
+ * no SQLite query and nothing is stored twice.
+ * <p>
+ * Every read copies the record out of the mapping into a String, which is then parsed by the
+ * {@link ElementCodec} just like a row read from the database. The elements only have the JSON
+ * serializer of the indexer, so decoding costs the same as without the store. What is saved is the
+ * query, and for headers the javadoc bytes that are never copied.
+ */
+public class ElementStore implements ElementSource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ElementStore.class);
+  private static final int MAGIC = 0x44_54_45_53; // DTES
+  private static final int VERSION = 3;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+  private static final long EMPTY = 0;
+
+  private final Arena arena;
+  private final ByteBuffer buffer;
+  private final LongBuffer hashes;
+  private final IntBuffer offsets;
+  private final int mask;
+  private final int size;
+  private final int dataStart;
+
+  private ElementStore(Arena arena, ByteBuffer buffer) {
+    this.arena = arena;
+    this.buffer = buffer;
+    int capacity = buffer.getInt(2 * Integer.BYTES + Long.BYTES);
+    this.size = buffer.getInt(3 * Integer.BYTES + Long.BYTES);
+    this.mask = capacity - 1;
+    this.hashes = buffer.slice(HEADER_SIZE, capacity * Long.BYTES).asLongBuffer();
+    this.offsets = buffer.slice(HEADER_SIZE + capacity * Long.BYTES, capacity * Integer.BYTES)
+        .asIntBuffer();
+    this.dataStart = tableEnd(capacity);
+  }
+
+  @Override
+  public Optional<String> readData(String qualifiedName) {
+    OptionalInt header = find(qualifiedName);
+    if (header.isEmpty()) {
+      return Optional.empty();
+    }
+    int offset = header.getAsInt();
+    int headerLength = buffer.getInt(offset);
+    int headerStart = offset + Integer.BYTES;
+    int partsStart = headerStart + headerLength + Integer.BYTES;
+    int partCount = buffer.getInt(headerStart + headerLength);
+
+    int length = headerLength;
+    int part = partsStart;
+    for (int i = 0; i < partCount; i++) {
+      int partLength = buffer.getInt(part + Integer.BYTES);
+      length += partLength;
+      part += 2 * Integer.BYTES + partLength;
+    }
+
+    byte[] element = new byte[length];
+    int copiedHeader = 0;
+    int written = 0;
+    part = partsStart;
+    for (int i = 0; i < partCount; i++) {
+      int position = buffer.getInt(part);
+      int partLength = buffer.getInt(part + Integer.BYTES);
+      buffer.get(headerStart + copiedHeader, element, written, position - copiedHeader);
+      written += position - copiedHeader;
+      copiedHeader = position;
+      buffer.get(part + 2 * Integer.BYTES, element, written, partLength);
+      written += partLength;
+      part += 2 * Integer.BYTES + partLength;
+    }
+    buffer.get(headerStart + copiedHeader, element, written, headerLength - copiedHeader);
+
+    return Optional.of(new String(element, StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public Map<String, String> readData(Collection<String> qualifiedNames) {
+    Map<String, String> result = new HashMap<>();
+    for (String name : qualifiedNames) {
+      readData(name).ifPresent(data -> result.put(name, data));
+    }
+    return result;
+  }
+
+  @Override
+  public Map<String, String> readHeaderData(Collection<String> qualifiedNames) {
+    Map<String, String> result = new HashMap<>();
+    for (String name : qualifiedNames) {
+      OptionalInt header = find(name);
+      if (header.isPresent()) {
+        result.put(name, readString(header.getAsInt()));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean storesHeaders() {
+    return true;
+  }
+
+  /**
+   * @return the offset of the element's header or an empty optional if it does not exist
+   */
+  private OptionalInt find(String qualifiedName) {
+    long hash = SourceRoutingIndex.hash(qualifiedName);
+    ByteBuffer name = null;
+
+    for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+      long key = hashes.get(slot);
+      if (key == EMPTY) {
+        return OptionalInt.empty();
+      }
+      if (key != hash) {
+        continue;
+      }
+      if (name == null) {
+        name = ByteBuffer.wrap(qualifiedName.getBytes(StandardCharsets.UTF_8));
+      }
+      int offset = offsets.get(slot);
+      int nameLength = buffer.getInt(offset);
+      // Different names with the same hash are told apart by the stored name
+      if (buffer.slice(offset + Integer.BYTES, nameLength).equals(name)) {
+        return OptionalInt.of(offset + Integer.BYTES + nameLength);
+      }
+    }
+  }
+
+  @Override
+  public void forEachName(Consumer<String> consumer) {
+    int offset = dataStart;
+    for (int i = 0; i < size; i++) {
+      consumer.accept(readString(offset));
+      // Skip the name, the header and the javadoc parts
+      offset += Integer.BYTES + buffer.getInt(offset);
+      offset += Integer.BYTES + buffer.getInt(offset);
+      int partCount = buffer.getInt(offset);
+      offset += Integer.BYTES;
+      for (int part = 0; part < partCount; part++) {
+        offset += 2 * Integer.BYTES + buffer.getInt(offset + Integer.BYTES);
+      }
+    }
+  }
+
+  private String readString(int offset) {
+    byte[] bytes = new byte[buffer.getInt(offset)];
+    buffer.get(offset + Integer.BYTES, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Unmaps the store. It must not be read afterwards.
+   */
+  @Override
+  public void close() {
+    arena.close();
+  }
+
+  private static int tableEnd(int capacity) {
+    return HEADER_SIZE + capacity * (Long.BYTES + Integer.BYTES);
+  }
+
+  /**
+   * Maps a store if it exists and was converted from a source with the given fingerprint.
+   *
+   * @param file the store file
+   * @param fingerprint the fingerprint of the source database
+   * @return the store or an empty optional if it is missing or outdated
+   */
+  public static Optional<ElementStore> open(Path file, SourceFingerprint fingerprint) {
+    if (!Files.isRegularFile(file)) {
+      LOGGER.info("No element store at {}, reading from the database", file);
+      return Optional.empty();
+    }
+
+    // The mapping stays valid after the channel is closed, until the arena is closed. Buffers
+    // mapped by the channel directly would only be unmapped once they are garbage collected.
+    Arena arena = Arena.openShared();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size(), arena.scope())
+          .asByteBuffer();
+
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+        LOGGER.info("Element store at {} has an unknown format, reading from the database", file);
+        arena.close();
+        return Optional.empty();
+      }
+      if (buffer.getLong(2 * Integer.BYTES) != fingerprint.value()) {
+        LOGGER.info("Element store at {} is outdated, reading from the database", file);
+        arena.close();
+        return Optional.empty();
+      }
+
+      return Optional.of(new ElementStore(arena, buffer));
+    } catch (IOException | RuntimeException e) {
+      arena.close();
+      LOGGER.warn("Could not read element store at {}, reading from the database", file, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Starts writing a new store. The existing one is only replaced once the writer is
+   * {@link Writer#finish() finished}.
+   *
+   * @param file the store file
+   * @param fingerprint the fingerprint of the source database the elements are copied from
+   * @param elementCount the exact amount of elements that will be added
+   * @return the writer
+   * @throws IOException if the file can not be created
+   */
+  public static Writer create(Path file, SourceFingerprint fingerprint, int elementCount)
+      throws IOException {
+    return new Writer(file.toAbsolutePath(), fingerprint, elementCount);
+  }
+
+  public static class Writer implements AutoCloseable {
+
+    private final Path target;
+    private final Path temp;
+    private final SourceFingerprint fingerprint;
+    private final FileChannel channel;
+    private final long[] hashes;
+    private final int[] offsets;
+    private final int capacity;
+    private long position;
+    private int size;
+
+    private Writer(Path target, SourceFingerprint fingerprint, int elementCount)
+        throws IOException {
+      this.target = target;
+      this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+      this.fingerprint = fingerprint;
+      // Keep the load factor at or below 0.5
+      this.capacity = Integer.highestOneBit(Math.max(1, elementCount) * 2 - 1) << 1;
+      this.hashes = new long[capacity];
+      this.offsets = new int[capacity];
+      this.position = tableEnd(capacity);
+
+      Files.deleteIfExists(temp);
+      this.channel = FileChannel.open(
+          temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE
+      );
+    }
+
+    /**
+     * Appends an element.
+     *
+     * @param qualifiedName the qualified name of the element
+     * @param data the serialized element
+     * @throws IOException if writing fails or the element is malformed
+     */
+    public void add(String qualifiedName, String data) throws IOException {
+      if (size * 2 >= capacity) {
+        throw new IllegalStateException("More elements than announced");
+      }
+      byte[] name = qualifiedName.getBytes(StandardCharsets.UTF_8);
+      SplitElement split = ElementCodec.split(data);
+      byte[] header = split.header().getBytes(StandardCharsets.UTF_8);
+
+      // Javadoc positions are indices into the header string, but the store splices bytes
+      int[] positions = new int[split.javadoc().size()];
+      byte[][] parts = new byte[split.javadoc().size()][];
+      int partsSize = 0;
+      int charPosition = 0;
+      int bytePosition = 0;
+      for (int i = 0; i < parts.length; i++) {
+        JavadocPart part = split.javadoc().get(i);
+        bytePosition += split.header()
+            .substring(charPosition, part.position())
+            .getBytes(StandardCharsets.UTF_8)
+            .length;
+        charPosition = part.position();
+        positions[i] = bytePosition;
+        parts[i] = part.contents().getBytes(StandardCharsets.UTF_8);
+        partsSize += 2 * Integer.BYTES + parts[i].length;
+      }
+
+      int recordSize = 3 * Integer.BYTES + name.length + header.length + partsSize;
+      if (position + recordSize > Integer.MAX_VALUE) {
+        throw new IOException("Element store exceeds 2 GiB, it can not be mapped");
+      }
+
+      ByteBuffer record = ByteBuffer.allocate(recordSize)
+          .putInt(name.length)
+          .put(name)
+          .putInt(header.length)
+          .put(header)
+          .putInt(parts.length);
+      for (int i = 0; i < parts.length; i++) {
+        record.putInt(positions[i])
+            .putInt(parts[i].length)
+            .put(parts[i]);
+      }
+      record.flip();
+      while (record.hasRemaining()) {
+        position += channel.write(record, position);
+      }
+
+      long hash = SourceRoutingIndex.hash(qualifiedName);
+      int slot = (int) hash & (capacity - 1);
+      while (hashes[slot] != EMPTY) {
+        slot = (slot + 1) & (capacity - 1);
+      }
+      hashes[slot] = hash;
+      offsets[slot] = (int) (position - recordSize);
+      size++;
+    }
+
+    /**
+     * Writes the table and atomically replaces the store.
+     *
+     * @throws IOException if writing fails
+     */
+    public void finish() throws IOException {
+      ByteBuffer table = ByteBuffer.allocate(tableEnd(capacity))
+          .putInt(MAGIC)
+          .putInt(VERSION)
+          .putLong(fingerprint.value())
+          .putInt(capacity)
+          .putInt(size);
+      table.asLongBuffer().put(hashes);
+      table.position(table.position() + capacity * Long.BYTES);
+      table.asIntBuffer().put(offsets);
+      table.clear();
+
+      long written = 0;
+      while (table.hasRemaining()) {
+        written += channel.write(table, written);
+      }
+      channel.force(true);
+      channel.close();
+
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (channel.isOpen()) {
+        channel.close();
+        Files.deleteIfExists(temp);
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package de.ialistannen.doctor.storage;
+
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import de.ialistannen.doctor.index.SourceFingerprint;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts source databases to the {@link ElementStore} configured for each source. The serialized
+ * elements are copied as they are, only the javadoc is split off.
+ */
+public class ElementStoreConverter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ElementStoreConverter.class);
+  private static final int BATCH_SIZE = 500;
+
+  private final DocTorConfig config;
+
+  public ElementStoreConverter(DocTorConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * Converts every source that has an {@code element_store} configured.
+   *
+   * @throws SQLException if reading a database fails
+   * @throws IOException if a store can not be written
+   */
+  public void convertAll() throws SQLException, IOException {
+    for (SourceConfig source : config.sources()) {
+      Optional<Path> target = source.elementStorePath();
+      if (target.isEmpty()) {
+        LOGGER.info("Skipping {}, no element store configured", source.database());
+        continue;
+      }
+      convert(source, target.get());
+    }
+  }
+
+  private void convert(SourceConfig source, Path target) throws SQLException, IOException {
+    LOGGER.info("Converting {} to {}", source.database(), target);
+
+    try (SourceDatabase database = new SourceDatabase(Path.of(source.database()))) {
+      convert(database, target, SourceFingerprint.of(source));
+    }
+
+    LOGGER.info("Converted {} to {}", source.database(), target);
+  }
+
+  /**
+   * Copies all elements of a source to a new element store.
+   *
+   * @param database the source to copy
+   * @param target the store file, replaced once the conversion finished
+   * @param fingerprint the fingerprint of the source database
+   * @throws SQLException if reading the source fails
+   * @throws IOException if the store can not be written
+   */
+  public static void convert(ElementSource database, Path target, SourceFingerprint fingerprint)
+      throws SQLException, IOException {
+    List<String> names = new ArrayList<>();
+    database.forEachName(names::add);
+
+    try (ElementStore.Writer writer = ElementStore.create(target, fingerprint, names.size())) {
+      for (int start = 0; start < names.size(); start += BATCH_SIZE) {
+        List<String> batch = names.subList(start, Math.min(names.size(), start + BATCH_SIZE));
+        for (Map.Entry<String, String> element : database.readData(batch).entrySet()) {
+          writer.add(element.getKey(), element.getValue());
+        }
+      }
+      writer.finish();
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package de.ialistannen.doctor.storage;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import de.ialistannen.doctor.DocTorConfig;
+import de.ialistannen.javadocbpi.rendering.links.ExternalJavadocReference;
+import de.ialistannen.javadocbpi.rendering.links.OnlineJavadocIndexer;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches the package lists of external javadoc sites and keeps them in an on-disk cache.
+ * <p>
+ * Every distinct URL is fetched at most once and all fetches run concurrently, bounded by a
+ * timeout. Cached entries younger than the max age are used as-is, older ones are revalidated and
+ * kept if the site can not be reached.
+ */
+public class ExternalJavadocCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExternalJavadocCache.class);
+  private static final int MAX_PARALLEL_FETCHES = 8;
+
+  private final Optional<Path> cacheFile;
+  private final Duration timeout;
+  private final Duration maxAge;
+  private final ObjectMapper mapper;
+
+  public ExternalJavadocCache(Optional<Path> cacheFile, Duration timeout, Duration maxAge) {
+    this.cacheFile = cacheFile;
+    this.timeout = timeout;
+    this.maxAge = maxAge;
+    this.mapper = JsonMapper.builder().build();
+  }
+
+  public static ExternalJavadocCache forConfig(DocTorConfig config) {
+    return new ExternalJavadocCache(
+        config.externalJavadocCachePath(),
+        config.externalJavadocTimeout(),
+        config.externalJavadocMaxAge()
+    );
+  }
+
+  /**
+   * Resolves the given javadoc URLs, using the cache where possible.
+   *
+   * @param urls the urls to resolve, may contain duplicates
+   * @return all references that could be fetched or were cached
+   * @throws InterruptedException if interrupted while waiting for the fetches
+   */
+  public List<ExternalJavadocReference> resolve(Collection<String> urls)
+      throws InterruptedException {
+    Map<String, CachedReference> cache = readCache();
+
+    // Key by normalized url but keep the first spelling for fetching
+    Map<String, String> uniqueUrls = new LinkedHashMap<>();
+    for (String url : urls) {
+      uniqueUrls.putIfAbsent(normalize(url), url);
+    }
+
+    long now = System.currentTimeMillis();
+    HttpClient client = HttpClient.newHttpClient();
+    Map<String, Callable<ExternalJavadocReference>> toFetch = new LinkedHashMap<>();
+    for (var entry : uniqueUrls.entrySet()) {
+      CachedReference cached = cache.get(entry.getKey());
+      if (cached == null || now - cached.fetchedAt() > maxAge.toMillis()) {
+        toFetch.put(entry.getKey(), fetchTask(client, entry.getValue()));
+      }
+    }
+
+    if (!toFetch.isEmpty()) {
+      LOGGER.info(
+          "Fetching {} external javadoc sites ({} cached)",
+          toFetch.size(), uniqueUrls.size() - toFetch.size()
+      );
+      fetchAll(toFetch, cache);
+      try {
+        writeCache(cache);
+      } catch (IOException e) {
+        LOGGER.warn("Could not write external javadoc cache, continuing without it", e);
+      }
+    }
+
+    List<ExternalJavadocReference> references = new ArrayList<>();
+    for (String url : uniqueUrls.keySet()) {
+      CachedReference cached = cache.get(url);
+      if (cached == null) {
+        LOGGER.warn("No javadoc available for '{}', links to it will not resolve", url);
+        continue;
+      }
+      references.add(cached.reference());
+    }
+
+    return references;
+  }
+
+  private void fetchAll(
+      Map<String, Callable<ExternalJavadocReference>> toFetch,
+      Map<String, CachedReference> cache
+  ) throws InterruptedException {
+    List<String> keys = new ArrayList<>(toFetch.keySet());
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(MAX_PARALLEL_FETCHES, keys.size())
+    );
+    try {
+      // invokeAll cancels everything that did not finish in time
+      List<Future<ExternalJavadocReference>> futures = executor.invokeAll(
+          toFetch.values(), timeout.toMillis(), TimeUnit.MILLISECONDS
+      );
+      long fetchedAt = System.currentTimeMillis();
+
+      for (int i = 0; i < keys.size(); i++) {
+        String url = keys.get(i);
+        try {
+          cache.put(url, new CachedReference(url, fetchedAt, futures.get(i).get()));
+        } catch (CancellationException e) {
+          LOGGER.warn("Fetching '{}' timed out after {}, using cached data", url, timeout);
+        } catch (ExecutionException e) {
+          LOGGER.warn("Fetching '{}' failed, using cached data", url, e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Callable<ExternalJavadocReference> fetchTask(HttpClient client, String url) {
+    return () -> new OnlineJavadocIndexer(client).fetchPackages(url);
+  }
+
+  private Map<String, CachedReference> readCache() {
+    Map<String, CachedReference> cache = new LinkedHashMap<>();
+    if (cacheFile.isEmpty() || !Files.exists(cacheFile.get())) {
+      return cache;
+    }
+
+    try {
+      List<CachedReference> entries = mapper.readValue(
+          cacheFile.get().toFile(),
+          new TypeReference<>() {
+          }
+      );
+      for (CachedReference entry : entries) {
+        cache.put(entry.url(), entry);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Could not read external javadoc cache, ignoring it", e);
+    }
+
+    return cache;
+  }
+
+  private void writeCache(Map<String, CachedReference> cache) throws IOException {
+    if (cacheFile.isEmpty()) {
+      return;
+    }
+    Path file = cacheFile.get().toAbsolutePath();
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+    mapper.writeValue(temp.toFile(), List.copyOf(cache.values()));
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static String normalize(String url) {
+    String normalized = url.strip();
+    while (normalized.endsWith("/")) {
+      normalized = normalized.substring(0, normalized.length() - 1);
+    }
+    return normalized;
+  }
+
+  private record CachedReference(
+      @JsonProperty("url") String url,
+      @JsonProperty("fetched_at") long fetchedAt,
+      @JsonProperty("reference") ExternalJavadocReference reference
+  ) {
+
+  }
+}
@@ -0,0 +1,673 @@
+package de.ialistannen.doctor.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of keyed records with a time to live, split into segment files.
+ * <p>
+ * Every write appends a record to the newest segment and an off-heap index maps the hash of each
+ * key to its newest record, so the heap does not grow with the amount of stored keys. Every write
+ * is forced to disk before it returns, outside the lock guarding the log: writers that wait for a
+ * force at the same time share a single one. When a segment is full, the oldest segments are
+ * deleted while all of their records expired, the oldest segment is compacted by copying its
+ * remaining live records to the newest one if most of it is dead, and the oldest segments are
+ * dropped while the log is larger than its size limit. Segments are always retired
+ * oldest first, so a deletion record never outlives older records for its key.
+ * <p>
+ * Record layout: a CRC32C of the rest of the record, the length of the body and the body: expiry in
+ * epoch millis, kind, key length, key and value.
+ */
+class MessageLog implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MessageLog.class);
+
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int BODY_PREFIX_SIZE = Long.BYTES + 1 + Short.BYTES;
+  private static final byte KIND_PUT = 1;
+  private static final byte KIND_DELETE = 2;
+
+  private final Path directory;
+  private final Duration timeToLive;
+  private final long segmentBytes;
+  private final long maxBytes;
+  private final TreeMap<Integer, Segment> segments;
+  private final LocationIndex index;
+  private final ReentrantLock lock;
+  private final ReentrantLock forceLock;
+  private Segment head;
+  // Records are numbered in append order, all records up to forcedRecords are on disk
+  private long appendedRecords;
+  private long forcedRecords;
+
+  private MessageLog(
+      Path directory,
+      Duration timeToLive,
+      long segmentBytes,
+      long maxBytes
+  ) {
+    this.directory = directory;
+    this.timeToLive = timeToLive;
+    this.segmentBytes = segmentBytes;
+    this.maxBytes = maxBytes;
+    this.segments = new TreeMap<>();
+    this.index = new LocationIndex(1 << 12);
+    this.lock = new ReentrantLock();
+    this.forceLock = new ReentrantLock();
+  }
+
+  /**
+   * Reads the value stored for a key.
+   *
+   * @param key the key
+   * @return the value or an empty optional if it is unknown or expired
+   * @throws IOException if reading the segment fails
+   */
+  public Optional<byte[]> get(String key) throws IOException {
+    lock.lock();
+    try {
+      long hash = LocationIndex.hash(key);
+      int slot = index.find(hash);
+      if (slot < 0) {
+        return Optional.empty();
+      }
+
+      Segment segment = segments.get(index.segment(slot));
+      Record record = segment.read(index.offset(slot), index.size(slot));
+      if (!record.key().equals(key)) {
+        return Optional.empty();
+      }
+      if (record.expiresAt() < System.currentTimeMillis()) {
+        segment.liveBytes -= index.size(slot);
+        index.remove(slot);
+        return Optional.empty();
+      }
+
+      return Optional.of(record.value());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stores a value, replacing any previous one and resetting the time to live.
+   *
+   * @param key the key
+   * @param value the value
+   * @throws IOException if writing fails
+   */
+  public void put(String key, byte[] value) throws IOException {
+    long written;
+    lock.lock();
+    try {
+      Record record = new Record(expiry(), KIND_PUT, key, value);
+      if (append(record, LocationIndex.hash(key))) {
+        maintain();
+      }
+      written = appendedRecords;
+    } finally {
+      lock.unlock();
+    }
+    awaitForced(written);
+  }
+
+  /**
+   * Deletes the value of a key.
+   *
+   * @param key the key
+   * @throws IOException if writing fails
+   */
+  public void delete(String key) throws IOException {
+    long written;
+    lock.lock();
+    try {
+      long hash = LocationIndex.hash(key);
+      int slot = index.find(hash);
+      if (slot < 0) {
+        // No live record, nothing could come back on the next start
+        return;
+      }
+      segments.get(index.segment(slot)).liveBytes -= index.size(slot);
+      index.remove(slot);
+
+      Record record = new Record(expiry(), KIND_DELETE, key, new byte[0]);
+      if (append(record, hash)) {
+        maintain();
+      }
+      written = appendedRecords;
+    } finally {
+      lock.unlock();
+    }
+    awaitForced(written);
+  }
+
+  /**
+   * Waits until all records up to the given one are on disk. Only one thread forces at a time and
+   * every force covers all records appended before it started, so threads queued behind it usually
+   * find their record forced already.
+   *
+   * @param record the number of the record to wait for
+   */
+  private void awaitForced(long record) throws IOException {
+    forceLock.lock();
+    try {
+      FileChannel channel;
+      long target;
+      lock.lock();
+      try {
+        if (forcedRecords >= record) {
+          return;
+        }
+        channel = head.channel;
+        target = appendedRecords;
+      } finally {
+        lock.unlock();
+      }
+
+      try {
+        channel.force(false);
+      } catch (ClosedByInterruptException e) {
+        throw e;
+      } catch (ClosedChannelException e) {
+        // The segment was forced when it stopped being the head or when the log was closed
+      }
+
+      lock.lock();
+      try {
+        forcedRecords = Math.max(forcedRecords, target);
+      } finally {
+        lock.unlock();
+      }
+    } finally {
+      forceLock.unlock();
+    }
+  }
+
+  /**
+   * Forces the head to disk. Older segments were forced when they stopped being the head, so all
+   * appended records are on disk afterwards.
+   */
+  private void forceHead() throws IOException {
+    head.channel.force(false);
+    forcedRecords = appendedRecords;
+  }
+
+  private long expiry() {
+    return System.currentTimeMillis() + timeToLive.toMillis();
+  }
+
+  /**
+   * @return the total size of all segments in bytes
+   */
+  public long byteSize() {
+    lock.lock();
+    try {
+      return segments.values().stream().mapToLong(it -> it.size).sum();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the amount of live keys
+   */
+  public int size() {
+    lock.lock();
+    try {
+      return index.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Appends a record to the head and indexes it if it is a put.
+   *
+   * @return true if a new head segment was started
+   */
+  private boolean append(Record record, long hash) throws IOException {
+    ByteBuffer encoded = record.encode();
+    boolean rolled = false;
+    if (head.size > 0 && head.size + encoded.remaining() > segmentBytes) {
+      forceHead();
+      head = createSegment(head.id + 1);
+      rolled = true;
+    }
+
+    int offset = Math.toIntExact(head.size);
+    int size = encoded.remaining();
+    head.write(encoded);
+    head.maxExpiry = Math.max(head.maxExpiry, record.expiresAt());
+    appendedRecords++;
+
+    if (record.kind() == KIND_PUT) {
+      index(hash, head, offset, size);
+    }
+    return rolled;
+  }
+
+  private void index(long hash, Segment segment, int offset, int size) {
+    int slot = index.find(hash);
+    if (slot >= 0) {
+      segments.get(index.segment(slot)).liveBytes -= index.size(slot);
+    }
+    index.put(hash, segment.id, offset, size);
+    segment.liveBytes += size;
+  }
+
+  private void maintain() throws IOException {
+    long now = System.currentTimeMillis();
+
+    // Only the oldest segment may go, a newer one could hold the deletion of an older record
+    Segment oldest = segments.firstEntry().getValue();
+    while (oldest != head && oldest.maxExpiry < now) {
+      drop(oldest);
+      oldest = segments.firstEntry().getValue();
+    }
+
+    while (oldest != head && oldest.liveBytes * 2 <= oldest.size) {
+      compact(oldest);
+      oldest = segments.firstEntry().getValue();
+    }
+
+    while (segments.size() > 1 && byteSize() > maxBytes) {
+      Segment dropped = segments.firstEntry().getValue();
+      LOGGER.warn(
+          "Message log exceeds {} bytes, dropping {} live bytes",
+          maxBytes, dropped.liveBytes
+      );
+      drop(dropped);
+    }
+  }
+
+  /**
+   * Copies the live records of a segment to the head and deletes it. The copies are forced before
+   * the segment is deleted, so a crash can not lose both.
+   */
+  private void compact(Segment segment) throws IOException {
+    long now = System.currentTimeMillis();
+    for (Located located : segment.readAll()) {
+      Record record = located.record();
+      long hash = LocationIndex.hash(record.key());
+      if (record.kind() == KIND_PUT && record.expiresAt() >= now && isIndexed(hash, located)) {
+        append(record, hash);
+      }
+    }
+    forceHead();
+    drop(segment);
+  }
+
+  /**
+   * Deletes a segment, forgetting all records that still live in it.
+   */
+  private void drop(Segment segment) throws IOException {
+    for (Located located : segment.readAll()) {
+      long hash = LocationIndex.hash(located.record().key());
+      if (isIndexed(hash, located)) {
+        index.remove(index.find(hash));
+      }
+    }
+    segments.remove(segment.id);
+    segment.channel.close();
+    Files.delete(segment.path);
+  }
+
+  private boolean isIndexed(long hash, Located located) {
+    int slot = index.find(hash);
+    return slot >= 0
+        && index.segment(slot) == located.segment().id
+        && index.offset(slot) == located.offset();
+  }
+
+  private Segment createSegment(int id) throws IOException {
+    Path path = directory.resolve("%08d%s".formatted(id, SEGMENT_SUFFIX));
+    Segment segment = new Segment(id, path, FileChannel.open(
+        path,
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+    ));
+    segments.put(id, segment);
+    return segment;
+  }
+
+  private void load() throws IOException {
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(directory)) {
+      files = stream
+          .filter(it -> it.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+
+    long now = System.currentTimeMillis();
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      Segment segment = createSegment(
+          Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()))
+      );
+      for (Located located : segment.readAll()) {
+        Record record = located.record();
+        long hash = LocationIndex.hash(record.key());
+        segment.maxExpiry = Math.max(segment.maxExpiry, record.expiresAt());
+
+        if (record.kind() == KIND_DELETE) {
+          int slot = index.find(hash);
+          if (slot >= 0) {
+            segments.get(index.segment(slot)).liveBytes -= index.size(slot);
+            index.remove(slot);
+          }
+        } else if (record.expiresAt() >= now) {
+          index(hash, segment, located.offset(), located.size());
+        }
+      }
+    }
+
+    head = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+    maintain();
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      forceHead();
+      for (Segment segment : segments.values()) {
+        segment.channel.close();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Opens the log in a directory, replaying existing segments.
+   *
+   * @param directory the directory holding the segments
+   * @param timeToLive how long records are kept after they were written
+   * @param segmentBytes the size at which a new segment is started, at most 2 GiB
+   * @param maxBytes the size above which the oldest segments are dropped
+   * @return the opened log
+   * @throws IOException if the segments can not be read
+   * @throws IllegalArgumentException if the segment size is larger than 2 GiB
+   */
+  public static MessageLog open(
+      Path directory,
+      Duration timeToLive,
+      long segmentBytes,
+      long maxBytes
+  ) throws IOException {
+    // Records are addressed by int offsets
+    if (segmentBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "Segments can be at most " + Integer.MAX_VALUE + " bytes, got " + segmentBytes
+      );
+    }
+    Files.createDirectories(directory);
+
+    MessageLog log = new MessageLog(directory, timeToLive, segmentBytes, maxBytes);
+    log.load();
+    LOGGER.info("Opened message log with {} keys in {} bytes", log.size(), log.byteSize());
+
+    return log;
+  }
+
+  private record Record(long expiresAt, byte kind, String key, byte[] value) {
+
+    private ByteBuffer encode() {
+      byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+      int bodyLength = BODY_PREFIX_SIZE + keyBytes.length + value.length;
+
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bodyLength);
+      buffer.position(HEADER_SIZE);
+      buffer.putLong(expiresAt)
+          .put(kind)
+          .putShort((short) keyBytes.length)
+          .put(keyBytes)
+          .put(value);
+
+      buffer.putInt(Integer.BYTES, bodyLength);
+      CRC32C crc = new CRC32C();
+      crc.update(buffer.array(), Integer.BYTES, buffer.capacity() - Integer.BYTES);
+      buffer.putInt(0, (int) crc.getValue());
+
+      return buffer.flip();
+    }
+
+    private static Record decode(ByteBuffer body) {
+      long expiresAt = body.getLong();
+      byte kind = body.get();
+      byte[] keyBytes = new byte[Short.toUnsignedInt(body.getShort())];
+      body.get(keyBytes);
+      byte[] value = new byte[body.remaining()];
+      body.get(value);
+
+      return new Record(expiresAt, kind, new String(keyBytes, StandardCharsets.UTF_8), value);
+    }
+  }
+
+  private record Located(Segment segment, int offset, int size, Record record) {
+
+  }
+
+  private static final class Segment {
+
+    private final int id;
+    private final Path path;
+    private final FileChannel channel;
+    private long size;
+    private long liveBytes;
+    private long maxExpiry;
+
+    private Segment(int id, Path path, FileChannel channel) throws IOException {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+      this.size = channel.size();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+      int length = buffer.remaining();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, size + length - buffer.remaining());
+      }
+      size += length;
+    }
+
+    private Record read(int offset, int size) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(size);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, offset + buffer.position()) < 0) {
+          throw new IOException("Record at " + offset + " in " + path + " is truncated");
+        }
+      }
+      return Record.decode(buffer.position(HEADER_SIZE));
+    }
+
+    /**
+     * Reads all intact records. A torn or corrupted record ends the segment, the rest is cut off.
+     */
+    private List<Located> readAll() throws IOException {
+      ByteBuffer contents = ByteBuffer.allocate(Math.toIntExact(size));
+      while (contents.hasRemaining() && channel.read(contents, contents.position()) >= 0) {
+        // keep reading
+      }
+      contents.flip();
+
+      List<Located> records = new ArrayList<>();
+      CRC32C crc = new CRC32C();
+      while (contents.remaining() >= HEADER_SIZE) {
+        int offset = contents.position();
+        int checksum = contents.getInt(offset);
+        int bodyLength = contents.getInt(offset + Integer.BYTES);
+        if (bodyLength < BODY_PREFIX_SIZE || bodyLength > contents.remaining() - HEADER_SIZE) {
+          break;
+        }
+        crc.reset();
+        crc.update(contents.slice(offset + Integer.BYTES, Integer.BYTES + bodyLength));
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+
+        Record record = Record.decode(contents.slice(offset + HEADER_SIZE, bodyLength));
+        records.add(new Located(this, offset, HEADER_SIZE + bodyLength, record));
+        contents.position(offset + HEADER_SIZE + bodyLength);
+      }
+
+      if (contents.hasRemaining()) {
+        LOGGER.warn("Cutting off {} corrupted bytes of {}", contents.remaining(), path);
+        size = contents.position();
+        channel.truncate(size);
+      }
+
+      return records;
+    }
+  }
+
+  /**
+   * An open addressing hash table from 64 bit key hashes to record locations, stored off-heap.
+   */
+  private static final class LocationIndex {
+
+    private static final long EMPTY = 0;
+    private static final long REMOVED = 1;
+
+    private LongBuffer keys;
+    private LongBuffer locations;
+    private IntBuffer sizes;
+    private int mask;
+    private int size;
+    private int used;
+
+    private LocationIndex(int capacity) {
+      allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+      this.keys = ByteBuffer.allocateDirect(capacity * Long.BYTES).asLongBuffer();
+      this.locations = ByteBuffer.allocateDirect(capacity * Long.BYTES).asLongBuffer();
+      this.sizes = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+      this.mask = capacity - 1;
+      this.size = 0;
+      this.used = 0;
+    }
+
+    /**
+     * @return the slot of the hash or -1 if it is not contained
+     */
+    private int find(long hash) {
+      for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+        long key = keys.get(slot);
+        if (key == EMPTY) {
+          return -1;
+        }
+        if (key == hash) {
+          return slot;
+        }
+      }
+    }
+
+    private void put(long hash, int segment, int offset, int recordSize) {
+      // Keep the load factor, including removed slots, at or below 0.5
+      if ((used + 1) * 2 > mask + 1) {
+        rehash(size * 4 > mask + 1 ? (mask + 1) * 2 : mask + 1);
+      }
+
+      int firstRemoved = -1;
+      for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+        long key = keys.get(slot);
+        if (key == hash) {
+          set(slot, hash, segment, offset, recordSize);
+          return;
+        }
+        if (key == REMOVED && firstRemoved < 0) {
+          firstRemoved = slot;
+        }
+        if (key == EMPTY) {
+          if (firstRemoved >= 0) {
+            slot = firstRemoved;
+          } else {
+            used++;
+          }
+          set(slot, hash, segment, offset, recordSize);
+          size++;
+          return;
+        }
+      }
+    }
+
+    private void set(int slot, long hash, int segment, int offset, int recordSize) {
+      keys.put(slot, hash);
+      locations.put(slot, ((long) segment << 32) | Integer.toUnsignedLong(offset));
+      sizes.put(slot, recordSize);
+    }
+
+    private void remove(int slot) {
+      keys.put(slot, REMOVED);
+      size--;
+    }
+
+    private void rehash(int capacity) {
+      LongBuffer oldKeys = keys;
+      LongBuffer oldLocations = locations;
+      IntBuffer oldSizes = sizes;
+      allocate(capacity);
+
+      for (int slot = 0; slot < oldKeys.capacity(); slot++) {
+        long key = oldKeys.get(slot);
+        if (key != EMPTY && key != REMOVED) {
+          long location = oldLocations.get(slot);
+          put(key, (int) (location >>> 32), (int) location, oldSizes.get(slot));
+        }
+      }
+    }
+
+    private int segment(int slot) {
+      return (int) (locations.get(slot) >>> 32);
+    }
+
+    private int offset(int slot) {
+      return (int) locations.get(slot);
+    }
+
+    private int size(int slot) {
+      return sizes.get(slot);
+    }
+
+    private int size() {
+      return size;
+    }
+
+    private static long hash(String key) {
+      // FNV-1a followed by a splitmix finalizer, like the source routing index
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < key.length(); i++) {
+        hash ^= key.charAt(i);
+        hash *= 0x100000001b3L;
+      }
+      hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+      hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+      hash = hash ^ (hash >>> 31);
+
+      return hash == EMPTY || hash == REMOVED ? 2 : hash;
+    }
+  }
+}
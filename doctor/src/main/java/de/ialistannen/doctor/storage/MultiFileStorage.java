@@ -0,0 +1,223 @@
+package de.ialistannen.doctor.storage;
+
+import de.ialistannen.doctor.DocTorConfig.SourceConfig;
+import de.ialistannen.doctor.index.SourceRoutingIndex;
+import de.ialistannen.doctor.metrics.Metrics;
+import de.ialistannen.javadocbpi.model.elements.DocumentedElement;
+import de.ialistannen.javadocbpi.model.elements.DocumentedElementReference;
+import io.prometheus.client.Histogram;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+public class MultiFileStorage {
+
+  private final List<SourceConfig> configs;
+  private final List<ElementSource> databases;
+  private final List<String> sourceNames;
+  private final SourceRoutingIndex routing;
+  private final ElementCodec codec;
+  private final ElementCache cache;
+
+  /**
+   * Creates a new storage.
+   *
+   * @param configs the configs of all sources, in config order
+   * @param databases the databases of the sources, in the same order
+   * @param routing the routing index, using the same order for source indices
+   * @param codec the codec to decode elements with
+   * @param cache the cache for elements
+   */
+  public MultiFileStorage(
+      List<SourceConfig> configs,
+      List<ElementSource> databases,
+      SourceRoutingIndex routing,
+      ElementCodec codec,
+      ElementCache cache
+  ) {
+    this.configs = List.copyOf(configs);
+    this.databases = List.copyOf(databases);
+    // File names are not unique across sources, so metrics use the whole path
+    this.sourceNames = configs.stream()
+        .map(it -> Path.of(it.database()).toString())
+        .toList();
+    this.routing = routing;
+    this.codec = codec;
+    this.cache = cache;
+  }
+
+  public Optional<FetchResult> get(String qualifiedName) throws SQLException, IOException {
+    Optional<FetchResult> cached = cache.getDecoded(qualifiedName);
+    if (cached.isPresent()) {
+      return cached;
+    }
+
+    OptionalInt source = routing.sourceOf(qualifiedName);
+    if (source.isEmpty()) {
+      return Optional.empty();
+    }
+    ElementSource database = databases.get(source.getAsInt());
+    String sourceName = sourceNames.get(source.getAsInt());
+
+    Optional<String> data = cache.getSerialized(qualifiedName);
+    if (data.isEmpty()) {
+      try (Histogram.Timer ignored = Metrics.storageRead(sourceName)) {
+        data = database.readData(qualifiedName);
+      }
+      if (data.isEmpty()) {
+        return Optional.empty();
+      }
+      cache.putSerialized(qualifiedName, data.get());
+    }
+
+    FetchResult result;
+    try (Histogram.Timer ignored = Metrics.decode(sourceName, false)) {
+      result = codec.decode(qualifiedName, data.get(), configs.get(source.getAsInt()));
+    }
+    cache.putDecoded(qualifiedName, result, data.get());
+
+    return Optional.of(result);
+  }
+
+  /**
+   * Fetches the header of a single element.
+   *
+   * @param qualifiedName the name of the element
+   * @return the header, if the element exists
+   * @throws SQLException if the query fails
+   * @throws IOException if the element can not be decoded
+   */
+  public Optional<ElementHeader> getHeader(String qualifiedName) throws SQLException, IOException {
+    return Optional.ofNullable(getHeaders(List.of(qualifiedName)).get(qualifiedName));
+  }
+
+  /**
+   * Fetches the headers of many elements, using a single query per source. Elements that are
+   * already cached, decoded or serialized, are not read again.
+   *
+   * @param qualifiedNames the names of the elements
+   * @return the found elements keyed by their qualified name
+   * @throws SQLException if a query fails
+   * @throws IOException if an element can not be decoded
+   */
+  public Map<String, ElementHeader> getHeaders(Collection<String> qualifiedNames)
+      throws SQLException, IOException {
+    Map<String, ElementHeader> result = new HashMap<>();
+    Map<Integer, List<String>> namesBySource = new HashMap<>();
+
+    for (String name : qualifiedNames) {
+      Optional<ElementHeader> header = cache.getHeader(name);
+      if (header.isPresent()) {
+        result.put(name, header.get());
+        continue;
+      }
+      Optional<FetchResult> cached = cache.getDecoded(name);
+      if (cached.isPresent()) {
+        result.put(name, ElementHeader.of(cached.get()));
+        continue;
+      }
+      OptionalInt source = routing.sourceOf(name);
+      if (source.isEmpty()) {
+        continue;
+      }
+      Optional<String> serialized = cache.getSerialized(name);
+      if (serialized.isPresent()) {
+        result.put(name, decodeHeader(name, source.getAsInt(), serialized.get(), false));
+        continue;
+      }
+      namesBySource.computeIfAbsent(source.getAsInt(), ignored -> new ArrayList<>()).add(name);
+    }
+
+    for (var entry : namesBySource.entrySet()) {
+      ElementSource source = databases.get(entry.getKey());
+
+      Map<String, String> data;
+      try (Histogram.Timer ignored = Metrics.storageRead(sourceNames.get(entry.getKey()))) {
+        data = source.readHeaderData(entry.getValue());
+      }
+
+      for (var element : data.entrySet()) {
+        String name = element.getKey();
+        if (!source.storesHeaders()) {
+          // The complete element is useful once a chooser button is clicked
+          cache.putSerialized(name, element.getValue());
+        }
+        result.put(
+            name,
+            decodeHeader(name, entry.getKey(), element.getValue(), source.storesHeaders())
+        );
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Decodes a header and caches it.
+   *
+   * @param name the qualified name of the element
+   * @param source the index of the source of the element
+   * @param data the serialized element or header
+   * @param stripped whether the javadoc was already stripped from the data
+   * @return the decoded header
+   * @throws IOException if the element can not be decoded
+   */
+  private ElementHeader decodeHeader(String name, int source, String data, boolean stripped)
+      throws IOException {
+    String headerData = data;
+    ElementHeader header;
+    try (Histogram.Timer ignored = Metrics.decode(sourceNames.get(source), true)) {
+      if (!stripped) {
+        headerData = ElementCodec.stripJavadoc(data);
+      }
+      header = codec.decodeStrippedHeader(name, headerData, configs.get(source));
+    }
+    cache.putHeader(name, header, headerData);
+
+    return header;
+  }
+
+  /**
+   * Frees the memory of the cache. The databases are owned and closed by the caller.
+   */
+  public void close() {
+    cache.close();
+  }
+
+  public ElementCache.Statistics cacheStatistics() {
+    return cache.statistics();
+  }
+
+  public record FetchResult(
+      DocumentedElementReference reference,
+      DocumentedElement element,
+      SourceConfig config
+  ) {
+
+  }
+
+  /**
+   * An element without its javadoc.
+   *
+   * @param reference the reference to the element
+   * @param element the element, with an empty javadoc
+   * @param config the source of the element
+   */
+  public record ElementHeader(
+      DocumentedElementReference reference,
+      DocumentedElement element,
+      SourceConfig config
+  ) {
+
+    private static ElementHeader of(FetchResult result) {
+      return new ElementHeader(result.reference(), result.element(), result.config());
+    }
+  }
+}
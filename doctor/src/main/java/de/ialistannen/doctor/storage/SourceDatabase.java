@@ -0,0 +1,259 @@
+package de.ialistannen.doctor.storage;
+
+import de.ialistannen.doctor.DocTorConfig.StorageConfig;
+import de.ialistannen.doctor.metrics.Metrics;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Direct read access to the tables of a source database written by the JavadocIndexer's
+ * {@link de.ialistannen.javadocbpi.storage.SQLiteStorage}. Elements are returned in their
+ * serialized form and can be decoded with an {@link ElementCodec}.
+ * <p>
+ * Reads are spread over a fixed pool of read-only connections, each with its own prepared
+ * statements, so concurrent lookups do not queue on a single connection. The database is opened as
+ * immutable: SQLite skips locking and change detection, so it must be replaced by moving a new file
+ * into place instead of being modified.
+ * <p>
+ * Other tables keyed by qualified name with a data column, like the prerendered embeds, can be read
+ * the same way by passing their table name.
+ */
+public class SourceDatabase implements ElementSource {
+
+  static final String ELEMENT_TABLE = "Elements";
+  static final String NAME_COLUMN = "qualified_name";
+  static final String DATA_COLUMN = "data";
+
+  private static final int FETCH_SIZE = 4096;
+  // Batch reads come from choosers, which never have more names than buttons
+  private static final int MAX_CACHED_BATCH_SIZE = 32;
+
+  private final String name;
+  private final String table;
+  private final List<PooledConnection> connections;
+  private final BlockingQueue<PooledConnection> idle;
+
+  public SourceDatabase(Path file) throws SQLException {
+    this(file, new StorageConfig(null, null, null));
+  }
+
+  public SourceDatabase(Path file, StorageConfig config) throws SQLException {
+    this(file, config, ELEMENT_TABLE);
+  }
+
+  /**
+   * Opens a database that keeps its rows in a table other than the element table.
+   *
+   * @param file the database file
+   * @param config the storage config
+   * @param table the table holding the {@value #NAME_COLUMN} and {@value #DATA_COLUMN} columns
+   * @throws SQLException if the database can not be opened
+   */
+  public SourceDatabase(Path file, StorageConfig config, String table) throws SQLException {
+    this.name = file.toString();
+    this.table = table;
+    this.connections = new ArrayList<>();
+    this.idle = new ArrayBlockingQueue<>(config.connectionPoolSize());
+
+    String url = "jdbc:sqlite:" + file.toAbsolutePath().toUri() + "?mode=ro&immutable=1";
+    try {
+      for (int i = 0; i < config.connectionPoolSize(); i++) {
+        PooledConnection connection = new PooledConnection(
+            DriverManager.getConnection(url), table
+        );
+        connections.add(connection);
+        connection.configure(config);
+        idle.add(connection);
+      }
+    } catch (SQLException e) {
+      close();
+      throw e;
+    }
+  }
+
+  @Override
+  public Optional<String> readData(String qualifiedName) throws SQLException {
+    PooledConnection connection = acquire();
+    try {
+      PreparedStatement statement = connection.readStatement();
+      statement.setString(1, qualifiedName);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (!resultSet.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(resultSet.getString(1));
+      }
+    } finally {
+      idle.add(connection);
+    }
+  }
+
+  /**
+   * Reads the serialized elements with the given names in a single query.
+   */
+  @Override
+  public Map<String, String> readData(Collection<String> qualifiedNames) throws SQLException {
+    Map<String, String> result = new HashMap<>();
+    if (qualifiedNames.isEmpty()) {
+      return result;
+    }
+
+    PooledConnection connection = acquire();
+    try {
+      PreparedStatement statement = connection.batchStatement(qualifiedNames.size());
+      try {
+        int index = 1;
+        for (String name : qualifiedNames) {
+          statement.setString(index++, name);
+        }
+        try (ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            result.put(resultSet.getString(1), resultSet.getString(2));
+          }
+        }
+      } finally {
+        if (qualifiedNames.size() > MAX_CACHED_BATCH_SIZE) {
+          statement.close();
+        }
+      }
+    } finally {
+      idle.add(connection);
+    }
+
+    return result;
+  }
+
+  @Override
+  public void forEachName(Consumer<String> consumer) throws SQLException {
+    PooledConnection connection = acquire();
+    try (Statement statement = connection.connection.createStatement()) {
+      statement.setFetchSize(FETCH_SIZE);
+      try (ResultSet resultSet = statement.executeQuery(
+          "SELECT " + NAME_COLUMN + " FROM " + table
+      )) {
+        while (resultSet.next()) {
+          consumer.accept(resultSet.getString(1));
+        }
+      }
+    } finally {
+      idle.add(connection);
+    }
+  }
+
+  private PooledConnection acquire() throws SQLException {
+    PooledConnection connection = idle.poll();
+    if (connection != null) {
+      Metrics.connectionWait(name, 0);
+      return connection;
+    }
+
+    long start = System.nanoTime();
+    try {
+      connection = idle.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a connection", e);
+    }
+    Metrics.connectionWait(name, System.nanoTime() - start);
+    return connection;
+  }
+
+  /**
+   * Closes all connections. Reads must have finished before.
+   *
+   * @throws SQLException if a connection can not be closed
+   */
+  @Override
+  public void close() throws SQLException {
+    SQLException error = null;
+    for (PooledConnection connection : connections) {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        if (error == null) {
+          error = e;
+        } else {
+          error.addSuppressed(e);
+        }
+      }
+    }
+    connections.clear();
+    idle.clear();
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * A connection and its prepared statements. Only used by one thread at a time.
+   */
+  private static final class PooledConnection {
+
+    private final Connection connection;
+    private final String table;
+    private final Map<Integer, PreparedStatement> batchStatements;
+    private PreparedStatement readStatement;
+
+    private PooledConnection(Connection connection, String table) {
+      this.connection = connection;
+      this.table = table;
+      this.batchStatements = new HashMap<>();
+    }
+
+    private void configure(StorageConfig config) throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("PRAGMA query_only = 1");
+        statement.execute("PRAGMA mmap_size = " + config.mmapBytes());
+        // Negative values are in KiB instead of pages
+        statement.execute("PRAGMA cache_size = -" + config.cacheBytes() / 1024);
+        statement.execute("PRAGMA temp_store = MEMORY");
+      }
+    }
+
+    private PreparedStatement readStatement() throws SQLException {
+      if (readStatement == null) {
+        readStatement = connection.prepareStatement(
+            "SELECT " + DATA_COLUMN + " FROM " + table + " WHERE " + NAME_COLUMN + " = ?"
+        );
+      }
+      return readStatement;
+    }
+
+    private PreparedStatement batchStatement(int size) throws SQLException {
+      PreparedStatement statement = batchStatements.get(size);
+      if (statement != null) {
+        return statement;
+      }
+
+      String placeholders = String.join(", ", Collections.nCopies(size, "?"));
+      statement = connection.prepareStatement(
+          "SELECT " + NAME_COLUMN + ", " + DATA_COLUMN + " FROM " + table
+              + " WHERE " + NAME_COLUMN + " IN (" + placeholders + ")"
+      );
+      if (size <= MAX_CACHED_BATCH_SIZE) {
+        batchStatements.put(size, statement);
+      }
+      return statement;
+    }
+
+    private void close() throws SQLException {
+      // Closing the connection closes its statements
+      connection.close();
+    }
+  }
+}
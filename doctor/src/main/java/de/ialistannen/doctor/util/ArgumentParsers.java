@@ -1,11 +1,12 @@
 package de.ialistannen.doctor.util;
 
-import java.util.Set;
 import java.util.regex.Pattern;
 
 public class ArgumentParsers {
 
-  private static final Set<Character> QUOTE_CHARS = Set.of('"', '\'');
+  private static final CharPredicate QUOTE_CHARS = c -> c == '"' || c == '\'';
+  private static final Pattern WORD = Pattern.compile("\\S*");
+  private static final Pattern INTEGER = Pattern.compile("\\d+");
 
   /**
    * A parser that reads a single word (i.e. until a space character).
@@ -13,10 +14,8 @@ public class ArgumentParsers {
    * @return a parser that reads a single word
    */
   public static ArgumentParser<String> word() {
-    final Pattern pattern = Pattern.compile("\\S*");
-
     return input -> {
-      String readString = input.readRegex(pattern);
+      String readString = input.readRegex(WORD);
 
       if (readString.length() == 0) {
         return Result.error(new ParseError("Expected a word", input));
@@ -32,10 +31,8 @@ public class ArgumentParsers {
    * @return a parser that reads a single word
    */
   public static ArgumentParser<Integer> integer() {
-    final Pattern pattern = Pattern.compile("\\d+");
-
     return input -> {
-      String readString = input.readRegex(pattern);
+      String readString = input.readRegex(INTEGER);
 
       if (readString.length() == 0) {
         return Result.error(new ParseError("Expected an integer", input));
@@ -57,7 +54,7 @@ public class ArgumentParsers {
    */
   public static ArgumentParser<String> phrase() {
     return input -> {
-      if (!QUOTE_CHARS.contains(input.peek())) {
+      if (!QUOTE_CHARS.test(input.peek())) {
         return word().parse(input);
       }
 
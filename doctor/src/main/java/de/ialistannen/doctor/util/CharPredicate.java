@@ -0,0 +1,20 @@
+package de.ialistannen.doctor.util;
+
+/**
+ * A predicate on a primitive char, so testing characters does not box them.
+ */
+@FunctionalInterface
+public interface CharPredicate {
+
+  /**
+   * Tests a character.
+   *
+   * @param c the character
+   * @return true if the character matches
+   */
+  boolean test(char c);
+
+  default CharPredicate negate() {
+    return c -> !test(c);
+  }
+}
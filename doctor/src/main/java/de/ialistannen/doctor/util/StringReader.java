@@ -1,6 +1,5 @@
 package de.ialistannen.doctor.util;
 
-import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -63,12 +62,40 @@ public class StringReader {
     return underlying.charAt(position);
   }
 
-  public String peekWhile(Predicate<Character> predicate) {
-    int start = getPosition();
-    String result = readWhile(predicate);
-    reset(start);
+  /**
+   * Returns how many chars {@link #readWhile(CharPredicate)} would read, without moving the
+   * cursor.
+   *
+   * @param predicate the predicate
+   * @return the amount of matching chars
+   */
+  public int lengthWhile(CharPredicate predicate) {
+    int end = position;
+    while (end < underlying.length() && predicate.test(underlying.charAt(end))) {
+      end++;
+    }
+    return end - position;
+  }
+
+  /**
+   * Finds the next occurrence of a string, relative to the current position.
+   *
+   * @param needle the string to search for
+   * @return the offset of the string from the current position or -1 if it does not occur
+   */
+  public int indexOf(String needle) {
+    int index = underlying.indexOf(needle, position);
+    return index < 0 ? -1 : index - position;
+  }
 
-    return result;
+  /**
+   * Checks whether the input continues with the given string, without moving the cursor.
+   *
+   * @param expected the expected string
+   * @return true if the next chars are the given string
+   */
+  public boolean peekMatches(String expected) {
+    return underlying.startsWith(expected, position);
   }
 
   public String assertRead(String string) {
@@ -117,6 +144,17 @@ public class StringReader {
     return underlying.substring(oldPos, position);
   }
 
+  /**
+   * Reads the given amount of characters into a builder, without creating an intermediate string.
+   *
+   * @param count the amount of characters to read
+   * @param target the builder to append to
+   */
+  public void readChars(int count, StringBuilder target) {
+    target.append(underlying, position, position + count);
+    position += count;
+  }
+
   /**
    * Reads for as long as {@link #canRead()} is true and the predicate matches.
    * <p>
@@ -125,15 +163,24 @@ public class StringReader {
    * @param predicate the predicate
    * @return the read string
    */
-  public String readWhile(Predicate<Character> predicate) {
+  public String readWhile(CharPredicate predicate) {
     int start = position;
-    while (canRead() && predicate.test(peek())) {
-      readChar();
-    }
+    position += lengthWhile(predicate);
 
     return underlying.substring(start, position);
   }
 
+  /**
+   * Reads like {@link #readWhile(CharPredicate)}, but appends the read text to a builder instead
+   * of creating a string.
+   *
+   * @param predicate the predicate
+   * @param target the builder to append to
+   */
+  public void readWhile(CharPredicate predicate, StringBuilder target) {
+    readChars(lengthWhile(predicate), target);
+  }
+
   /**
    * Reads the whole string matching the regex.
    *
@@ -141,15 +188,10 @@ public class StringReader {
    * @return the read string or an empty String, if the regex didn't match
    */
   public String readRegex(Pattern pattern) {
-    Matcher matcher = pattern.matcher(getUnderlying());
-    boolean resultFound = matcher.find(position);
-
-    if (!resultFound) {
-      return "";
-    }
+    // The match must start at the current position, so there is no need to look any further
+    Matcher matcher = pattern.matcher(underlying).region(position, underlying.length());
 
-    if (matcher.start() != position) {
-      // The match must start at the current position or it does not count
+    if (!matcher.lookingAt()) {
       return "";
     }
 
@@ -165,7 +207,10 @@ public class StringReader {
    * @return the reamining string
    */
   public String readRemaining() {
-    return readWhile(it -> true);
+    int start = position;
+    position = underlying.length();
+
+    return underlying.substring(start);
   }
 
   /**